@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package eu.eidas.benchmark;
+
+import eu.eidas.RecommendedSecurityProviders;
+import eu.eidas.auth.commons.EIDASStatusCode;
+import eu.eidas.auth.commons.attribute.ImmutableAttributeMap;
+import eu.eidas.auth.commons.attribute.impl.StringAttributeValue;
+import eu.eidas.auth.commons.protocol.IAuthenticationRequest;
+import eu.eidas.auth.commons.protocol.IAuthenticationResponse;
+import eu.eidas.auth.commons.protocol.IRequestMessage;
+import eu.eidas.auth.commons.protocol.IResponseMessage;
+import eu.eidas.auth.commons.protocol.eidas.NotifiedLevelOfAssurance;
+import eu.eidas.auth.commons.protocol.eidas.impl.EidasAuthenticationRequest;
+import eu.eidas.auth.commons.protocol.eidas.spec.EidasSpec;
+import eu.eidas.auth.commons.protocol.impl.AuthenticationResponse;
+import eu.eidas.auth.commons.xml.opensaml.OpenSamlHelper;
+import eu.eidas.auth.engine.ProtocolEngineFactory;
+import eu.eidas.auth.engine.ProtocolEngineI;
+import eu.eidas.auth.engine.SamlEngineSystemClock;
+import eu.eidas.auth.engine.configuration.dom.ProtocolEngineConfigurationFactory;
+import eu.eidas.auth.engine.core.eidas.EidasProtocolProcessor;
+import eu.eidas.auth.engine.metadata.EidasMetadataParametersI;
+import eu.eidas.auth.engine.metadata.EidasMetadataRoleParametersI;
+import eu.eidas.auth.engine.metadata.MetadataClockI;
+import eu.eidas.auth.engine.metadata.MetadataFetcherI;
+import eu.eidas.auth.engine.metadata.MetadataSignerI;
+import eu.eidas.auth.engine.metadata.MetadataUtil;
+import eu.eidas.encryption.exception.UnmarshallException;
+import eu.eidas.engine.exceptions.EIDASMetadataException;
+import eu.eidas.engine.exceptions.EIDASSAMLEngineException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensaml.saml.saml2.core.Issuer;
+import org.opensaml.xmlsec.signature.KeyInfo;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the SAML request and response processing of a {@link ProtocolEngineI}, with and without encryption
+ * of the response assertions.
+ * <p>
+ * The engine is configured as the "METADATATEST" instance of the SAMLEngine tests, which signs with RSASSA-PSS and
+ * encrypts with AES-256-GCM, with the keystores of the SAMLEngine test jar. The engine reads its configuration files
+ * from the filesystem only, so they are copied from the classpath to a temporary directory for each trial.
+ * <p>
+ * The metadata of the Connector and of the ProxyService are the sample metadata of the SAMLEngine test jar. See
+ * readme.txt to build and run the benchmarks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProtocolEngineBenchmark {
+
+    private static final String ENGINE_CONFIGURATION_FILE = "BenchmarkSamlEngine.xml";
+
+    private static final String ENGINE_INSTANCE = "BENCHMARK";
+
+    /**
+     * The files of the engine configuration: the ones of the benchmarks first, then the ones of the SAMLEngine test jar.
+     */
+    private static final List<String> ENGINE_FILES = List.of(ENGINE_CONFIGURATION_FILE, "BenchmarkSignModule.xml",
+            "BenchmarkEncryptModule.xml", "SamlEngine_Metadata.xml", "encryptionConf.xml", "keyStoreCountry1.p12",
+            "keyStoreMetadata.p12");
+
+    private static final String CONNECTOR_METADATA = "samplemetadata/ServiceMetadataWithTwoSigningKeys.xml";
+
+    private static final String PROXY_SERVICE_METADATA = "samplemetadata/ServiceMetadata.xml";
+
+    private static final String CONNECTOR_METADATA_URL = "http://ca/EidasNode/ConnectorMetadata";
+
+    private static final String PROXY_SERVICE_METADATA_URL = "http://localhost:8080/EidasNode/ServiceMetadata";
+
+    private static final String IP_ADDRESS = "127.0.0.1";
+
+    /**
+     * The encryption of the response is configured per country of the service provider: enabled for BE, disabled
+     * for CA.
+     */
+    @Param({"true", "false"})
+    public boolean encryptedResponse;
+
+    private Path configurationDirectory;
+
+    private ProtocolEngineI protocolEngine;
+
+    private EidasAuthenticationRequest authenticationRequest;
+
+    private AuthenticationResponse authenticationResponse;
+
+    private byte[] requestMessage;
+
+    private byte[] responseMessage;
+
+    @Setup(Level.Trial)
+    public void setUpEngine() throws EIDASSAMLEngineException, EIDASMetadataException, IOException {
+        RecommendedSecurityProviders.setupRecommendedSecurityProviders();
+        OpenSamlHelper.initialize();
+
+        configurationDirectory = Files.createTempDirectory("eidas-benchmarks");
+        for (final String engineFile : ENGINE_FILES) {
+            try (InputStream input = openResource(engineFile)) {
+                Files.copy(input, configurationDirectory.resolve(engineFile));
+            }
+        }
+        final ProtocolEngineConfigurationFactory configurationFactory = new ProtocolEngineConfigurationFactory(
+                ENGINE_CONFIGURATION_FILE, null, configurationDirectory.toString() + File.separator);
+        protocolEngine = ProtocolEngineFactory.createProtocolEngine(ENGINE_INSTANCE, configurationFactory,
+                new EidasProtocolProcessor(new SampleMetadataFetcher(), null, null), new SamlEngineSystemClock());
+        authenticationRequest = newAuthenticationRequest(encryptedResponse ? "BE" : "CA");
+        authenticationResponse = newAuthenticationResponse(authenticationRequest);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownEngine() throws IOException {
+        try (Stream<Path> paths = Files.walk(configurationDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * The messages to validate are generated again for each iteration, so that they do not expire during long runs.
+     */
+    @Setup(Level.Iteration)
+    public void setUpMessages() throws EIDASSAMLEngineException {
+        requestMessage = generateRequestMessage().getMessageBytes();
+        responseMessage = generateResponseMessage().getMessageBytes();
+    }
+
+    @Benchmark
+    public IRequestMessage generateRequestMessage() throws EIDASSAMLEngineException {
+        return protocolEngine.generateRequestMessage(authenticationRequest, PROXY_SERVICE_METADATA_URL);
+    }
+
+    @Benchmark
+    public IAuthenticationRequest unmarshallRequestAndValidate() throws EIDASSAMLEngineException {
+        return protocolEngine.unmarshallRequestAndValidate(requestMessage, "BE");
+    }
+
+    @Benchmark
+    public IResponseMessage generateResponseMessage() throws EIDASSAMLEngineException {
+        return protocolEngine.generateResponseMessage(authenticationRequest, authenticationResponse, IP_ADDRESS);
+    }
+
+    @Benchmark
+    public IAuthenticationResponse unmarshallResponseAndValidate() throws EIDASSAMLEngineException {
+        return protocolEngine.unmarshallResponseAndValidate(responseMessage, IP_ADDRESS, 0L, 0L, null);
+    }
+
+    private static EidasAuthenticationRequest newAuthenticationRequest(String serviceProviderCountryCode) {
+        return EidasAuthenticationRequest.builder()
+                .id("_1")
+                .issuer(CONNECTOR_METADATA_URL)
+                .destination("http://cef-eid-build-1:8080/EidasNode/ColleagueRequest")
+                .citizenCountryCode("BE")
+                .serviceProviderCountryCode(serviceProviderCountryCode)
+                .providerName("Prov")
+                .levelOfAssurance(NotifiedLevelOfAssurance.LOW)
+                .assertionConsumerServiceURL("http://localhost/EidasNode/ColleagueResponse")
+                .requestedAttributes(ImmutableAttributeMap.of(
+                        EidasSpec.Definitions.PERSON_IDENTIFIER, new StringAttributeValue[]{}))
+                .build();
+    }
+
+    private static AuthenticationResponse newAuthenticationResponse(IAuthenticationRequest request) {
+        return AuthenticationResponse.builder()
+                .statusCode(EIDASStatusCode.SUCCESS_URI.toString())
+                .id("_2")
+                .inResponseTo(request.getId())
+                .issuer(PROXY_SERVICE_METADATA_URL)
+                .subject("UK/UK/Bankys")
+                .subjectNameIdFormat("urn:oasis:names:tc:saml2:2.0:nameid-format:persistent")
+                .attributes(ImmutableAttributeMap.of(EidasSpec.Definitions.PERSON_IDENTIFIER,
+                        new StringAttributeValue("LU/BE/1")))
+                .levelOfAssurance(NotifiedLevelOfAssurance.LOW.stringValue())
+                .build();
+    }
+
+    private static InputStream openResource(String name) throws IOException {
+        final InputStream input = ProtocolEngineBenchmark.class.getClassLoader().getResourceAsStream(name);
+        if (null == input) {
+            throw new IOException(name + " not found on the classpath");
+        }
+        return input;
+    }
+
+    /**
+     * Serves the sample metadata instead of fetching it, so that the benchmarks only measure the engine: the Connector
+     * metadata for the requests and the ProxyService metadata for the responses.
+     * <p>
+     * The sample metadata were issued for other keys than the ones of the benchmark keystore, so the encryption
+     * certificates of the Connector are dropped: the responses are then encrypted with the certificate configured in
+     * the engine for the country of the service provider, which the engine can decrypt.
+     */
+    private static final class SampleMetadataFetcher implements MetadataFetcherI {
+
+        private final EidasMetadataParametersI connectorMetadata = readMetadata(CONNECTOR_METADATA);
+
+        private final EidasMetadataParametersI proxyServiceMetadata = readMetadata(PROXY_SERVICE_METADATA);
+
+        private SampleMetadataFetcher() throws EIDASMetadataException {
+            for (final EidasMetadataRoleParametersI roleParameters : connectorMetadata.getRoleDescriptors()) {
+                roleParameters.setEncryptionCertificates(Collections.emptyList());
+            }
+        }
+
+        @Nonnull
+        @Override
+        public EidasMetadataParametersI getEidasMetadata(@Nonnull Issuer metadataIssuer,
+                                                         KeyInfo requiredMsgSigningCertKeyInfo,
+                                                         @Nonnull MetadataSignerI metadataSigner,
+                                                         MetadataClockI metadataClock) {
+            return getEidasMetadata(metadataIssuer.getValue());
+        }
+
+        @Nonnull
+        @Override
+        public EidasMetadataParametersI getEidasMetadata(@Nonnull String metadataUrl,
+                                                         @Nonnull MetadataSignerI metadataSigner,
+                                                         MetadataClockI metadataClock) {
+            return getEidasMetadata(metadataUrl);
+        }
+
+        private EidasMetadataParametersI getEidasMetadata(String metadataUrl) {
+            return CONNECTOR_METADATA_URL.equals(metadataUrl) ? connectorMetadata : proxyServiceMetadata;
+        }
+
+        private static EidasMetadataParametersI readMetadata(String resource) throws EIDASMetadataException {
+            try (InputStream input = openResource(resource)) {
+                final String metadata = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+                return MetadataUtil.convertEntityDescriptor(
+                        MetadataUtil.deserializeEntityDescriptor(metadata).getEntityDescriptors().get(0));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (UnmarshallException e) {
+                throw new IllegalStateException("Invalid sample metadata " + resource, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.commons;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Random value utility class.
+ * <p>
+ * Each thread gets its own {@link SecureRandom}, so that generating identifiers does not contend on a single shared
+ * instance. The instances are created with the algorithm set in the {@value #SECURE_RANDOM_ALGORITHM_PROPERTY} system
+ * property, {@value #DEFAULT_SECURE_RANDOM_ALGORITHM} by default, and seed themselves from the platform entropy
+ * source on first use. When the algorithm is not available, the default {@link SecureRandom} of the platform is used.
+ *
+ * @since 2.9
+ */
+public final class EidasRandomUtil {
+
+    /**
+     * Name of the system property holding the {@link SecureRandom} algorithm.
+     */
+    public static final String SECURE_RANDOM_ALGORITHM_PROPERTY = "eidas.secureRandom.algorithm";
+
+    /**
+     * Default {@link SecureRandom} algorithm: the NIST SP 800-90Ar1 DRBG of the JDK.
+     */
+    public static final String DEFAULT_SECURE_RANDOM_ALGORITHM = "DRBG";
+
+    /**
+     * Logger object.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(EidasRandomUtil.class);
+
+    private static final String SECURE_RANDOM_ALGORITHM =
+            System.getProperty(SECURE_RANDOM_ALGORITHM_PROPERTY, DEFAULT_SECURE_RANDOM_ALGORITHM);
+
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM =
+            ThreadLocal.withInitial(() -> newSecureRandom(SECURE_RANDOM_ALGORITHM));
+
+    private EidasRandomUtil() {
+    }
+
+    /**
+     * @return the {@link SecureRandom} of the current thread
+     */
+    @Nonnull
+    public static SecureRandom getSecureRandom() {
+        return SECURE_RANDOM.get();
+    }
+
+    /**
+     * Generates a random (version 4) {@link UUID} with the {@link SecureRandom} of the current thread.
+     * <p>
+     * Same as {@link UUID#randomUUID()}, which uses a single {@link SecureRandom} shared by all threads.
+     *
+     * @return the string representation of the random {@link UUID}
+     */
+    @Nonnull
+    public static String randomUUID() {
+        final byte[] randomBytes = new byte[16];
+        getSecureRandom().nextBytes(randomBytes);
+        randomBytes[6] &= 0x0f;  // clear version
+        randomBytes[6] |= 0x40;  // set to version 4
+        randomBytes[8] &= 0x3f;  // clear variant
+        randomBytes[8] |= (byte) 0x80;  // set to IETF variant
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < 8; i++) {
+            mostSigBits = (mostSigBits << 8) | (randomBytes[i] & 0xff);
+        }
+        for (int i = 8; i < 16; i++) {
+            leastSigBits = (leastSigBits << 8) | (randomBytes[i] & 0xff);
+        }
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    @Nonnull
+    static SecureRandom newSecureRandom(String algorithm) {
+        if (StringUtils.isNotBlank(algorithm)) {
+            try {
+                return SecureRandom.getInstance(algorithm.trim());
+            } catch (NoSuchAlgorithmException e) {
+                LOG.warn("SecureRandom algorithm \"{}\" is not available, using the default one", algorithm);
+            }
+        }
+        return new SecureRandom();
+    }
+}
@@ -30,12 +30,18 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Helper handling a reloadable file on the filesystem to marshal and unmarshal the content of a given file into one
  * instance of the given type.
+ * <p>
+ * The content is held as an immutable snapshot. {@link #get()} checks whether the file has been modified at most once
+ * every {@link #CHECK_INTERVAL_MILLIS} milliseconds, and reloads it if so; between two checks it only reads the current
+ * snapshot, without touching the filesystem. No background thread is involved, so nothing outlives the application.
  *
  * @since 1.1
  */
@@ -83,6 +89,11 @@ public final class ReloadableFileAccessor<T> implements SingletonAccessor<T> {
      */
     private static final Logger LOG = LoggerFactory.getLogger(ReloadableFileAccessor.class);
 
+    /**
+     * Minimum interval between two checks for modifications of the file.
+     */
+    static final long CHECK_INTERVAL_MILLIS = 1000L;
+
     @Nonnull
     private final FileMarshaller<T> fileMarshaller;
 
@@ -96,6 +107,18 @@ public final class ReloadableFileAccessor<T> implements SingletonAccessor<T> {
     @Nonnull
     private final AtomicReference<AtomicState<T>> referenceToState = new AtomicReference<AtomicState<T>>();
 
+    /**
+     * Whether the current state must be reloaded before being used.
+     */
+    private volatile boolean stale = true;
+
+    private final long checkIntervalNanos;
+
+    /**
+     * Time of the last check for modifications, from {@link System#nanoTime()}.
+     */
+    private final AtomicLong lastCheckNanos = new AtomicLong(System.nanoTime());
+
     @SuppressWarnings("squid:S2637")
     public ReloadableFileAccessor(@Nonnull FileMarshaller<T> fileMarshaller, @Nonnull String filename) {
         this(fileMarshaller, filename, getResourceIgnoredException(filename));
@@ -105,6 +128,13 @@ public final class ReloadableFileAccessor<T> implements SingletonAccessor<T> {
     public ReloadableFileAccessor(@Nonnull FileMarshaller<T> marshaller,
                                   @Nonnull String fileName,
                                   @Nonnull URL fileUrl) {
+        this(marshaller, fileName, fileUrl, CHECK_INTERVAL_MILLIS);
+    }
+
+    ReloadableFileAccessor(@Nonnull FileMarshaller<T> marshaller,
+                           @Nonnull String fileName,
+                           @Nonnull URL fileUrl,
+                           long checkIntervalMillis) {
         Preconditions.checkNotNull(marshaller, "fileMarshaller");
         Preconditions.checkNotBlank(fileName, "fileName");
         File file;
@@ -116,9 +146,31 @@ public final class ReloadableFileAccessor<T> implements SingletonAccessor<T> {
         } catch (IOException ioe) {
             throw new IllegalStateException(ioe);
         }
+        checkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMillis);
         referenceToState.set(new AtomicState<T>(file, 0L, watchService, null, false));
     }
 
+    /**
+     * Checks the file for modifications if the check interval has elapsed since the last check; only one of the
+     * threads calling concurrently performs the check.
+     */
+    private void checkForModificationIfDue() {
+        final long now = System.nanoTime();
+        final long lastCheck = lastCheckNanos.get();
+        if (now - lastCheck >= checkIntervalNanos && lastCheckNanos.compareAndSet(lastCheck, now)) {
+            checkForModification();
+        }
+    }
+
+    /**
+     * Marks the current state as stale if the file has been externally modified.
+     */
+    void checkForModification() {
+        if (!stale && referenceToState.get().externallyModified()) {
+            stale = true;
+        }
+    }
+
     private static URL getResourceIgnoredException(@Nonnull String path) {
         try {
             return ResourceLocator.getResource(path);
@@ -161,12 +213,15 @@ public final class ReloadableFileAccessor<T> implements SingletonAccessor<T> {
     }
 
     private boolean checkIfModified() throws IOException {
-        AtomicState<T> currentState = referenceToState.get();
-        if (currentState.externallyModified()) {
-            reload(currentState);
-            return true;
+        checkForModification();
+        return reloadIfStale();
+    }
+
+    private boolean reloadIfStale() throws IOException {
+        if (!stale) {
+            return false;
         }
-        return false;
+        return reload();
     }
 
     private File findFile() throws IOException {
@@ -190,7 +245,8 @@ public final class ReloadableFileAccessor<T> implements SingletonAccessor<T> {
     }
 
     private AtomicState<T> getState() throws IOException {
-        checkIfModified();
+        checkForModificationIfDue();
+        reloadIfStale();
         return referenceToState.get();
     }
 
@@ -199,29 +255,42 @@ public final class ReloadableFileAccessor<T> implements SingletonAccessor<T> {
      * <p>
      * Is called after the "currentState.externallyModified()" condition which is always false while this DAO is
      * writing.
+     * <p>
+     * The state stays stale until the reloaded state is published, so that a concurrent reader either waits for the
+     * initial load or retries the reload on its next access.
+     *
+     * @return {@code true} if the file has been reloaded by this call
      */
-    private synchronized void reload(AtomicState<T> currentState) throws IOException {
+    private synchronized boolean reload() throws IOException {
         // We lock because we want to prevent reloading while writing.
         if (!lock.tryLock()) {
             // if we cannot acquire the lock, and if there is already a cached result, we keep returning this stale result rather than blocking
             //noinspection VariableNotUsedInsideIf
             if (null != referenceToState.get().value) {
-                return;
+                return false;
             } else {
                 // We care if 2 threads load the initial value concurrently - we prefer that one thread loads it and the rest waits.
                 lock.lock();
             }
         } // else we acquired the lock
         try {
+            if (!stale) {
+                // already reloaded by the thread which held the lock
+                return false;
+            }
+            AtomicState<T> currentState = referenceToState.get();
             // compute new state:
             File file = findFile();
             long lastModified = file.lastModified();
             T value = fileMarshaller.unmarshal(file);
             AtomicState<T> newState = new AtomicState<T>(file, lastModified, watchService, value, false);
 
-            referenceToState.compareAndSet(currentState, newState);
-            // if OK, updated
+            if (referenceToState.compareAndSet(currentState, newState)) {
+                stale = false;
+                return true;
+            }
             // else another thread already changed the AtomicState
+            return false;
         } finally {
             lock.unlock();
         }
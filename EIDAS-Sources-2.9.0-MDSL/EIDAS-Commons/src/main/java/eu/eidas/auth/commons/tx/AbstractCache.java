@@ -34,7 +34,8 @@ import java.util.Map;
 import java.util.Set;
 
 /**
- * Base implementation of the {@link Cache} interface.
+ * Base implementation of the {@link Cache} interface, which delegates every operation to the configured cache, so
+ * that the atomic and bulk operations of the configured cache are used as such.
  *
  * @since 2.3
  * @param <K> the key
@@ -79,7 +80,6 @@ public abstract class AbstractCache<K,V> implements Cache<K,V> {
     @Override
     public void put(K k, V v) {
         this.cache.put(k, v);
-
     }
 
     @Override
@@ -119,7 +119,7 @@ public abstract class AbstractCache<K,V> implements Cache<K,V> {
 
     @Override
     public boolean replace(K k, V v) {
-        return this.replace(k,v);
+        return this.cache.replace(k, v);
     }
 
     @Override
@@ -149,7 +149,7 @@ public abstract class AbstractCache<K,V> implements Cache<K,V> {
 
     @Override
     public <T> T invoke(K k, EntryProcessor<K, V, T> entryProcessor, Object... objects) throws EntryProcessorException {
-        return this.invoke(k, entryProcessor, objects);
+        return this.cache.invoke(k, entryProcessor, objects);
     }
 
     @Override
@@ -189,11 +189,11 @@ public abstract class AbstractCache<K,V> implements Cache<K,V> {
 
     @Override
     public void deregisterCacheEntryListener(CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration) {
-        cache.deregisterCacheEntryListener(cacheEntryListenerConfiguration);
+        this.cache.deregisterCacheEntryListener(cacheEntryListenerConfiguration);
     }
 
     @Override
     public Iterator<Entry<K, V>> iterator() {
-        return cache.iterator();
+        return this.cache.iterator();
     }
 }
@@ -21,6 +21,7 @@ import eu.eidas.util.Preconditions;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -52,6 +53,26 @@ public final class BinaryLightToken {
         this.lightToken = lightToken;
     }
 
+    private BinaryLightToken(@Nonnull byte[] tokenBytes, @Nonnull ILightToken lightToken) {
+        this.tokenBytes = tokenBytes;
+        this.lightToken = lightToken;
+    }
+
+    /**
+     * Creates a BinaryLightToken which owns the given array instead of copying it: the caller must not modify the
+     * array afterwards.
+     *
+     * @param lightToken the logical LightToken
+     * @param tokenBytes the physical LightToken
+     * @return the {@link BinaryLightToken}
+     */
+    @Nonnull
+    static BinaryLightToken wrap(@Nonnull ILightToken lightToken, @Nonnull byte[] tokenBytes) {
+        Preconditions.checkNotNull(lightToken, "lightToken");
+        Preconditions.checkNotEmpty(tokenBytes, "tokenBytes");
+        return new BinaryLightToken(tokenBytes, lightToken);
+    }
+
     /**
      * Logical LightToken what is equal to the encoded physical one
      * @return logical light token
@@ -70,6 +91,24 @@ public final class BinaryLightToken {
         return tokenBytes.clone();
     }
 
+    /**
+     * Read-only view of the binary or physical LightToken, which does not copy the token bytes.
+     * @return physical light token (need to be BASE64 encoded in the requests)
+     */
+    @Nonnull
+    public ByteBuffer getTokenByteBuffer() {
+        return ByteBuffer.wrap(tokenBytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Binary or physical LightToken encoded in BASE64, as sent in the requests.
+     * @return physical light token encoded in BASE64
+     */
+    @Nonnull
+    public String getTokenBase64() {
+        return EidasStringUtil.encodeToBase64(tokenBytes);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -84,13 +123,13 @@ public final class BinaryLightToken {
         if (!lightToken.equals(that.lightToken)) {
             return false;
         }
-        return Arrays.equals(getTokenBytes(), that.getTokenBytes());
+        return Arrays.equals(tokenBytes, that.tokenBytes);
     }
 
     @Override
     public int hashCode() {
         int result = lightToken.hashCode();
-        result = 31 * result + Arrays.hashCode(getTokenBytes());
+        result = 31 * result + Arrays.hashCode(tokenBytes);
         return result;
     }
 
@@ -98,7 +137,7 @@ public final class BinaryLightToken {
     public String toString() {
         return "BinaryLightToken{" +
                 "lightToken=" + lightToken +
-                ", tokenBytes=" + EidasStringUtil.encodeToBase64(getTokenBytes()) +
+                ", tokenBytes=" + getTokenBase64() +
                 '}';
     }
 
@@ -24,20 +24,31 @@ import eu.eidas.auth.commons.exceptions.SecurityEIDASException;
 import eu.eidas.auth.commons.light.ILightToken;
 import eu.eidas.auth.commons.light.impl.AbstractLightToken;
 import eu.eidas.auth.commons.light.impl.LightToken;
-import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
-import java.util.Arrays;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * LightTokenEncoder class is responsible to encode/decode LightTokens.
+ * <p>
+ * The digest algorithm selects how the digest of the token is calculated: a {@link Mac} algorithm, whose name starts
+ * with {@value #HMAC_ALGORITHM_PREFIX} (e.g. HmacSHA256), computes a keyed HMAC of ID|ISSUER|CREATEDON with the secret
+ * as key, while a {@link MessageDigest} algorithm (e.g. SHA-256) hashes ID|ISSUER|CREATEDON|SECRET as in the previous
+ * versions, so that the tokens of nodes still configured with it keep working. The {@link Mac} and
+ * {@link MessageDigest} instances are kept per thread and reused.
  *
  * @since 2.0.0
  */
@@ -52,13 +63,23 @@ public final class LightTokenEncoder {
     /** Maximum number of parts for the tokenizer. */
     public static final int MAX_PARTS = 4;
 
+    /** Prefix of the names of the {@link Mac} algorithms. */
+    public static final String HMAC_ALGORITHM_PREFIX = "Hmac";
+
+    private static final byte[] SEPARATOR_BYTES = AbstractLightToken.SEPARATOR.getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<Map<String, MessageDigest>> MESSAGE_DIGESTS = ThreadLocal.withInitial(HashMap::new);
+
+    /** The {@link Mac} instances of the current thread, by algorithm and secret. */
+    private static final ThreadLocal<Map<Map.Entry<String, String>, Mac>> MACS = ThreadLocal.withInitial(HashMap::new);
+
     /**
      * This method created a BinaryLightToken from the supplied LightToken, with the supplied parameters.
      * The resulting BinaryLightToken will contain a bytearray to be used for reference in HTTP.
      * Format of the encoded token is: ISSUER/ID/CREATEDON/DIGEST. DIGEST is in BASE64.
      * @param token the logical to LightToken to be encoded
      * @param secret secret for creating the digest
-     * @param algorithm digest algorithm (SHA256 is recommended)
+     * @param algorithm digest algorithm (HmacSHA256 is recommended)
      * @return Object encapsulation both Logical and encoded LightToken
      * @throws NoSuchAlgorithmException when digest algorithm could not be found.
      */
@@ -73,7 +94,7 @@ public final class LightTokenEncoder {
         tokenString.append(token.getFormattedCreatedOn());
         tokenString.append(AbstractLightToken.SEPARATOR);
         tokenString.append(EidasStringUtil.encodeToBase64(digestBytes));
-        return new BinaryLightToken(token, tokenString.toString().getBytes());
+        return BinaryLightToken.wrap(token, tokenString.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -94,7 +115,7 @@ public final class LightTokenEncoder {
             throw new SecurityEIDASException(EidasErrors.get(EidasErrorKey.INVALID_LIGHT_TOKEN.errorCode()),
                     "Error parsing LightToken, size exceeds " + MAX_TOKEN_SIZE);
         }
-        String stringTokenEncoded = new String(bytes);
+        String stringTokenEncoded = new String(bytes, StandardCharsets.UTF_8);
         return decode(EidasStringUtil.decodeBytesFromBase64(stringTokenEncoded), secret, algorithm);
     }
 
@@ -103,7 +124,7 @@ public final class LightTokenEncoder {
      * Decodes an array to a BinaryLightToken encapsulating the logical LightToken. This method is safe to process tokens coming in from the Web.
      * @param bytes array to be decoded
      * @param secret secret for checking the digest
-     * @param algorithm digest algorithm (SHA256 is recommended)
+     * @param algorithm digest algorithm (HmacSHA256 is recommended)
      * @return the {@link BinaryLightToken}
      * @throws NoSuchAlgorithmException when digest algorithm could not be found.
      * @throws SecurityEIDASException when token cannot be parsed
@@ -116,12 +137,15 @@ public final class LightTokenEncoder {
             throw new SecurityEIDASException(EidasErrors.get(EidasErrorKey.INVALID_LIGHT_TOKEN.errorCode()),
                     "Error parsing LightToken, size exceeds " + MAX_TOKEN_SIZE);
         }
-        String stringToken = new String(bytes);
-        if (StringUtils.countMatches(stringToken, AbstractLightToken.SEPARATOR) == 3) {
-            String[] parts = StringUtils.split(stringToken, AbstractLightToken.SEPARATOR, MAX_PARTS);
+        String stringToken = new String(bytes, StandardCharsets.UTF_8);
+        int idStart = stringToken.indexOf(AbstractLightToken.SEPARATOR) + 1;
+        int createdOnStart = idStart == 0 ? 0 : stringToken.indexOf(AbstractLightToken.SEPARATOR, idStart) + 1;
+        int digestStart = createdOnStart == 0 ? 0 : stringToken.indexOf(AbstractLightToken.SEPARATOR, createdOnStart) + 1;
+        if (digestStart != 0 && stringToken.indexOf(AbstractLightToken.SEPARATOR, digestStart) == -1) {
             LocalDateTime createdOn;
             try {
-                createdOn = LocalDateTime.parse(parts[2], AbstractLightToken.LIGHTTOKEN_DATE_FORMAT);
+                createdOn = LocalDateTime.parse(stringToken.substring(createdOnStart, digestStart - 1),
+                        AbstractLightToken.LIGHTTOKEN_DATE_FORMAT);
             } catch (DateTimeParseException e) {
                 log.error("Invalid LightToken - createdOn timestamp parse failure");
                 throw new SecurityEIDASException(EidasErrors.get(EidasErrorKey.INVALID_LIGHT_TOKEN.errorCode()),
@@ -131,8 +155,8 @@ public final class LightTokenEncoder {
             ILightToken lightToken;
             try {
                 lightToken = new LightToken.Builder()
-                        .issuer(parts[0])
-                        .id(parts[1])
+                        .issuer(stringToken.substring(0, idStart - 1))
+                        .id(stringToken.substring(idStart, createdOnStart - 1))
                         .createdOn(createdOn.atZone(ZoneId.systemDefault())).build();
             } catch (IllegalArgumentException e) {
                 log.error("Invalid LightToken - failure in builder : "+e.getMessage());
@@ -140,8 +164,8 @@ public final class LightTokenEncoder {
                         "LightToken parse error");
             }
             byte[] digestBytes = calculateDigest(lightToken, secret, algorithm);
-            byte[] incomingDigest = EidasStringUtil.decodeBytesFromBase64(parts[3]);
-            if (Arrays.equals(digestBytes, incomingDigest)) {
+            byte[] incomingDigest = EidasStringUtil.decodeBytesFromBase64(stringToken.substring(digestStart));
+            if (MessageDigest.isEqual(digestBytes, incomingDigest)) {
                 retLightToken = lightToken;
             } else {
                 log.error("Invalid LightToken - digest failure");
@@ -153,28 +177,66 @@ public final class LightTokenEncoder {
             throw new SecurityEIDASException(EidasErrors.get(EidasErrorKey.INVALID_LIGHT_TOKEN.errorCode()),
                     "LightToken parse error");
         }
-        return new BinaryLightToken(retLightToken, bytes.clone());
+        return BinaryLightToken.wrap(retLightToken, bytes.clone());
     }
 
     /**
      * Calclates a Digest for the supplied LightToken
      * @param lightToken logical LightToken
      * @param secret secret for the digest
-     * @param algorithm algorithm for the digest
+     * @param algorithm algorithm for the digest, a {@link Mac} algorithm or a {@link MessageDigest} one
      * @return the digest
      * @throws NoSuchAlgorithmException when digest algorithm could not be found.
      */
     protected static byte[] calculateDigest(@Nonnull ILightToken lightToken, @Nonnull String secret, @Nonnull String algorithm) throws NoSuchAlgorithmException {
-        MessageDigest md = MessageDigest.getInstance(algorithm);
-        md.reset();
-        md.update(lightToken.getId().getBytes());
-        md.update(AbstractLightToken.SEPARATOR.getBytes());
-        md.update(lightToken.getIssuer().getBytes());
-        md.update(AbstractLightToken.SEPARATOR.getBytes());
-        md.update(lightToken.getFormattedCreatedOn().getBytes());
-        md.update(AbstractLightToken.SEPARATOR.getBytes());
-        md.update(secret.getBytes() );
+        if (algorithm.startsWith(HMAC_ALGORITHM_PREFIX)) {
+            Mac mac = getMac(secret, algorithm);
+            mac.update(lightToken.getId().getBytes(StandardCharsets.UTF_8));
+            mac.update(SEPARATOR_BYTES);
+            mac.update(lightToken.getIssuer().getBytes(StandardCharsets.UTF_8));
+            mac.update(SEPARATOR_BYTES);
+            mac.update(lightToken.getFormattedCreatedOn().getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal();
+        }
+        MessageDigest md = getMessageDigest(algorithm);
+        md.update(lightToken.getId().getBytes(StandardCharsets.UTF_8));
+        md.update(SEPARATOR_BYTES);
+        md.update(lightToken.getIssuer().getBytes(StandardCharsets.UTF_8));
+        md.update(SEPARATOR_BYTES);
+        md.update(lightToken.getFormattedCreatedOn().getBytes(StandardCharsets.UTF_8));
+        md.update(SEPARATOR_BYTES);
+        md.update(secret.getBytes(StandardCharsets.UTF_8));
         return md.digest();
     }
 
+    private static MessageDigest getMessageDigest(@Nonnull String algorithm) throws NoSuchAlgorithmException {
+        Map<String, MessageDigest> messageDigests = MESSAGE_DIGESTS.get();
+        MessageDigest md = messageDigests.get(algorithm);
+        if (null == md) {
+            md = MessageDigest.getInstance(algorithm);
+            messageDigests.put(algorithm, md);
+        } else {
+            md.reset();
+        }
+        return md;
+    }
+
+    private static Mac getMac(@Nonnull String secret, @Nonnull String algorithm) throws NoSuchAlgorithmException {
+        Map<Map.Entry<String, String>, Mac> macs = MACS.get();
+        Map.Entry<String, String> key = new AbstractMap.SimpleImmutableEntry<>(algorithm, secret);
+        Mac mac = macs.get(key);
+        if (null == mac) {
+            mac = Mac.getInstance(algorithm);
+            try {
+                mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), algorithm));
+            } catch (InvalidKeyException | IllegalArgumentException e) {
+                throw new NoSuchAlgorithmException("Invalid secret for algorithm " + algorithm, e);
+            }
+            macs.put(key, mac);
+        } else {
+            mac.reset();
+        }
+        return mac;
+    }
+
 }
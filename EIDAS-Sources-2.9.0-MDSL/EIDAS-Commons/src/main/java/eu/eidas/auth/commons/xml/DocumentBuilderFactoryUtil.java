@@ -32,6 +32,9 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -70,6 +73,11 @@ public final class DocumentBuilderFactoryUtil {
 
     private static final Queue<Transformer> TRANSFORMER_POOL = new ConcurrentLinkedQueue<>();
 
+    /**
+     * The streaming factory used to read the root element only, without DTD nor external entities support.
+     */
+    private static final XMLInputFactory XML_INPUT_FACTORY = newSecureXMLInputFactory();
+
     /**
      * Configures a given DocumentBuilderFactory with security features turned on.
      *
@@ -285,6 +293,41 @@ public final class DocumentBuilderFactoryUtil {
         return parse(new ByteArrayInputStream(EidasStringUtil.getBytes(xmlString.trim())));
     }
 
+    /**
+     * Reads an attribute of the root element of the given XML document without parsing the whole document.
+     * <p>
+     * Only the prolog and the start tag of the root element are read, which is much cheaper than building the DOM,
+     * e.g. to reject a message based on its identifier before validating it. The document is not validated: the value
+     * must not be trusted before the document is fully parsed and validated.
+     *
+     * @param xmlBytes      the XML document
+     * @param attributeName the local name of an unqualified attribute of the root element
+     * @return the value of the attribute or {@code null} if the root element has no such attribute or the document
+     * cannot be read
+     * @since 2.9
+     */
+    @Nullable
+    public static String getRootElementAttribute(@Nonnull byte[] xmlBytes, @Nonnull String attributeName) {
+        Preconditions.checkNotNull(xmlBytes, "xmlBytes");
+        Preconditions.checkNotNull(attributeName, "attributeName");
+
+        XMLStreamReader xmlStreamReader = null;
+        try {
+            xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xmlBytes));
+            while (xmlStreamReader.hasNext()) {
+                if (xmlStreamReader.next() == XMLStreamReader.START_ELEMENT) {
+                    return xmlStreamReader.getAttributeValue(null, attributeName);
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            LOGGER.debug("Unable to read the root element", e);
+            return null;
+        } finally {
+            closeQuietly(xmlStreamReader);
+        }
+    }
+
     @Nonnull
     public static String toString(@Nonnull Node node) throws TransformerException {
         return EidasStringUtil.toString(marshall(node, true));
@@ -315,6 +358,24 @@ public final class DocumentBuilderFactoryUtil {
         return documentBuilder;
     }
 
+    @Nonnull
+    private static XMLInputFactory newSecureXMLInputFactory() {
+        final XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return xmlInputFactory;
+    }
+
+    private static void closeQuietly(@Nullable XMLStreamReader xmlStreamReader) {
+        if (null != xmlStreamReader) {
+            try {
+                xmlStreamReader.close();
+            } catch (XMLStreamException e) {
+                LOGGER.trace("Unable to close the XMLStreamReader", e);
+            }
+        }
+    }
+
     private DocumentBuilderFactoryUtil() {
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.commons;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Test class for {@link EidasRandomUtil}
+ */
+public class EidasRandomUtilTest {
+
+    /**
+     * Test method for {@link EidasRandomUtil#randomUUID()}
+     * <p>
+     * Must return distinct version 4 UUIDs in the format of {@link UUID#randomUUID()}.
+     */
+    @Test
+    public void randomUUID() {
+        final Set<String> uuids = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            final String uuid = EidasRandomUtil.randomUUID();
+            final UUID parsed = UUID.fromString(uuid);
+
+            Assert.assertEquals(uuid, parsed.toString());
+            Assert.assertEquals(4, parsed.version());
+            Assert.assertEquals(2, parsed.variant());
+            uuids.add(uuid);
+        }
+        Assert.assertEquals(100, uuids.size());
+    }
+
+    /**
+     * Test method for {@link EidasRandomUtil#getSecureRandom()}
+     * <p>
+     * Must return the same instance within a thread and another one in another thread.
+     */
+    @Test
+    public void getSecureRandomPerThread() throws Exception {
+        final SecureRandom secureRandom = EidasRandomUtil.getSecureRandom();
+
+        Assert.assertSame(secureRandom, EidasRandomUtil.getSecureRandom());
+        Assert.assertNotSame(secureRandom, CompletableFuture.supplyAsync(EidasRandomUtil::getSecureRandom).get());
+    }
+
+    /**
+     * Test method for {@link EidasRandomUtil#newSecureRandom(String)}
+     * when the algorithm is the default one
+     * <p>
+     * Must return a DRBG instance.
+     */
+    @Test
+    public void newSecureRandom() {
+        Assert.assertEquals(EidasRandomUtil.DEFAULT_SECURE_RANDOM_ALGORITHM,
+                EidasRandomUtil.newSecureRandom(EidasRandomUtil.DEFAULT_SECURE_RANDOM_ALGORITHM).getAlgorithm());
+    }
+
+    /**
+     * Test method for {@link EidasRandomUtil#newSecureRandom(String)}
+     * when the algorithm is not available
+     * <p>
+     * Must fall back to the default {@link SecureRandom}.
+     */
+    @Test
+    public void newSecureRandomUnknownAlgorithm() {
+        Assert.assertEquals(new SecureRandom().getAlgorithm(),
+                EidasRandomUtil.newSecureRandom("unknownAlgorithm").getAlgorithm());
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package eu.eidas.auth.commons.io;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test class for {@link ReloadableFileAccessor}
+ */
+public class ReloadableFileAccessorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger unmarshalCount = new AtomicInteger();
+
+    private final FileMarshaller<String> countingMarshaller = new FileMarshaller<String>() {
+
+        @Override
+        public void marshal(@Nonnull String newValue, @Nonnull File output) throws IOException {
+            Files.write(output.toPath(), newValue.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String unmarshal(@Nonnull File input) throws IOException {
+            unmarshalCount.incrementAndGet();
+            return new String(Files.readAllBytes(input.toPath()), StandardCharsets.UTF_8);
+        }
+    };
+
+    private File file;
+
+    private ReloadableFileAccessor<String> accessor;
+
+    @Before
+    public void setUp() throws IOException {
+        file = temporaryFolder.newFile("reloadable.txt");
+        Files.write(file.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+        accessor = new ReloadableFileAccessor<>(countingMarshaller, file.getAbsolutePath(), file.toURI().toURL());
+    }
+
+    /**
+     * Test method for {@link ReloadableFileAccessor#get()}
+     * when the file is not modified
+     * <p>
+     * Must read the file only once.
+     */
+    @Test
+    public void getUnmodified() throws IOException {
+        Assert.assertEquals("first", accessor.get());
+        Assert.assertEquals("first", accessor.get());
+        Assert.assertEquals("first", accessor.get());
+
+        Assert.assertEquals(1, unmarshalCount.get());
+    }
+
+    /**
+     * Test method for {@link ReloadableFileAccessor#get()}
+     * when the file was found to be externally modified
+     * <p>
+     * Must return the new content.
+     */
+    @Test
+    public void getAfterExternalModification() throws IOException {
+        Assert.assertEquals("first", accessor.get());
+
+        Files.write(file.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(file.setLastModified(file.lastModified() + 2000L));
+        accessor.checkForModification();
+
+        Assert.assertEquals("second", accessor.get());
+    }
+
+    /**
+     * Test method for {@link ReloadableFileAccessor#get()}
+     * when the file was externally modified and the check interval has elapsed
+     * <p>
+     * Must check the file on access and return the new content.
+     */
+    @Test
+    public void getChecksOnAccessWhenIntervalElapsed() throws IOException {
+        ReloadableFileAccessor<String> checkingAccessor =
+                new ReloadableFileAccessor<>(countingMarshaller, file.getAbsolutePath(), file.toURI().toURL(), 0L);
+        Assert.assertEquals("first", checkingAccessor.get());
+
+        Files.write(file.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(file.setLastModified(file.lastModified() + 2000L));
+
+        Assert.assertEquals("second", checkingAccessor.get());
+    }
+
+    /**
+     * Test method for {@link ReloadableFileAccessor#get()}
+     * when the file was externally modified before the check interval has elapsed
+     * <p>
+     * Must keep returning the current content without checking the file.
+     */
+    @Test
+    public void getDoesNotCheckWithinInterval() throws IOException {
+        ReloadableFileAccessor<String> throttledAccessor = new ReloadableFileAccessor<>(countingMarshaller,
+                file.getAbsolutePath(), file.toURI().toURL(), TimeUnit.HOURS.toMillis(1L));
+        Assert.assertEquals("first", throttledAccessor.get());
+
+        Files.write(file.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(file.setLastModified(file.lastModified() + 2000L));
+
+        Assert.assertEquals("first", throttledAccessor.get());
+        Assert.assertEquals(1, unmarshalCount.get());
+    }
+
+    /**
+     * Test method for {@link ReloadableFileAccessor#get()}
+     * when a second thread accesses the file while the first thread is loading it
+     * <p>
+     * Must wait for the load and return the content, not the empty initial state.
+     */
+    @Test
+    public void getConcurrentlyWithInitialLoad() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final FileMarshaller<String> slowMarshaller = new FileMarshaller<String>() {
+
+            @Override
+            public void marshal(@Nonnull String newValue, @Nonnull File output) throws IOException {
+                countingMarshaller.marshal(newValue, output);
+            }
+
+            @Override
+            public String unmarshal(@Nonnull File input) throws IOException {
+                loading.countDown();
+                try {
+                    loaded.await(10L, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return countingMarshaller.unmarshal(input);
+            }
+        };
+        final ReloadableFileAccessor<String> slowAccessor =
+                new ReloadableFileAccessor<>(slowMarshaller, file.getAbsolutePath(), file.toURI().toURL());
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<String> first = executorService.submit(slowAccessor::get);
+            Assert.assertTrue(loading.await(10L, TimeUnit.SECONDS));
+            final AtomicReference<String> secondValue = new AtomicReference<>();
+            final Thread second = new Thread(() -> {
+                try {
+                    secondValue.set(slowAccessor.get());
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            second.start();
+            // the second reader either waits for the initial load or has already returned
+            while (second.isAlive() && second.getState() == Thread.State.RUNNABLE) {
+                Thread.yield();
+            }
+            loaded.countDown();
+            second.join(TimeUnit.SECONDS.toMillis(10L));
+
+            Assert.assertEquals("first", first.get(10L, TimeUnit.SECONDS));
+            Assert.assertEquals("first", secondValue.get());
+            Assert.assertEquals(1, unmarshalCount.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Test method for {@link ReloadableFileAccessor#get()}
+     * when the load of the file fails
+     * <p>
+     * Must load the file again on the next access.
+     */
+    @Test
+    public void getAfterFailedLoad() throws IOException {
+        final AtomicInteger attempts = new AtomicInteger();
+        final FileMarshaller<String> failingOnceMarshaller = new FileMarshaller<String>() {
+
+            @Override
+            public void marshal(@Nonnull String newValue, @Nonnull File output) throws IOException {
+                countingMarshaller.marshal(newValue, output);
+            }
+
+            @Override
+            public String unmarshal(@Nonnull File input) throws IOException {
+                if (attempts.getAndIncrement() == 0) {
+                    throw new IOException("first load fails");
+                }
+                return countingMarshaller.unmarshal(input);
+            }
+        };
+        final ReloadableFileAccessor<String> failingOnceAccessor = new ReloadableFileAccessor<>(failingOnceMarshaller,
+                file.getAbsolutePath(), file.toURI().toURL(), TimeUnit.HOURS.toMillis(1L));
+        try {
+            failingOnceAccessor.get();
+            Assert.fail("IOException expected");
+        } catch (IOException expected) {
+            // the next access must retry
+        }
+
+        Assert.assertEquals("first", failingOnceAccessor.get());
+    }
+
+    /**
+     * Test method for {@link ReloadableFileAccessor#set(Object)}
+     * <p>
+     * Must write the file and return the new value without reloading it.
+     */
+    @Test
+    public void set() throws IOException {
+        Assert.assertEquals("first", accessor.get());
+
+        accessor.set("written");
+
+        Assert.assertEquals("written", accessor.get());
+        Assert.assertEquals("written", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.commons.tx;
+
+import eu.eidas.auth.commons.cache.ConcurrentCacheService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.cache.Cache;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorResult;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test class for {@link AbstractCache}, through {@link FlowIdCache}
+ */
+public class AbstractCacheTest {
+
+    private static final Set<String> KEYS = Collections.singleton("key");
+
+    private Cache<String, String> mockCache;
+
+    private FlowIdCache flowIdCache;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        mockCache = Mockito.mock(Cache.class);
+        final ConcurrentCacheService mockConcurrentCacheService = Mockito.mock(ConcurrentCacheService.class);
+        Mockito.when(mockConcurrentCacheService.getConfiguredCache()).thenReturn(mockCache);
+        flowIdCache = new FlowIdCache(mockConcurrentCacheService);
+    }
+
+    /**
+     * Test method for {@link AbstractCache#replace(Object, Object)}
+     * <p>
+     * Must delegate to the configured cache.
+     */
+    @Test
+    public void replace() {
+        Mockito.when(mockCache.replace("key", "value")).thenReturn(true);
+
+        Assert.assertTrue(flowIdCache.replace("key", "value"));
+        Mockito.verify(mockCache).replace("key", "value");
+    }
+
+    /**
+     * Test method for {@link AbstractCache#invoke(Object, EntryProcessor, Object...)}
+     * <p>
+     * Must delegate to the configured cache.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void invoke() {
+        final EntryProcessor<String, String, String> entryProcessor = Mockito.mock(EntryProcessor.class);
+        Mockito.when(mockCache.invoke("key", entryProcessor, "argument")).thenReturn("result");
+
+        Assert.assertEquals("result", flowIdCache.invoke("key", entryProcessor, "argument"));
+        Mockito.verify(mockCache).invoke("key", entryProcessor, "argument");
+    }
+
+    /**
+     * Test method for {@link AbstractCache#invokeAll(Set, EntryProcessor, Object...)}
+     * <p>
+     * Must delegate to the configured cache.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void invokeAll() {
+        final EntryProcessor<String, String, String> entryProcessor = Mockito.mock(EntryProcessor.class);
+        final Map<String, EntryProcessorResult<String>> results = Collections.singletonMap("key", () -> "result");
+        Mockito.when(mockCache.invokeAll(KEYS, entryProcessor)).thenReturn(results);
+
+        Assert.assertSame(results, flowIdCache.invokeAll(KEYS, entryProcessor));
+    }
+
+    /**
+     * Test method for {@link AbstractCache#getAll(Set)}, {@link AbstractCache#putAll(Map)}
+     * and {@link AbstractCache#removeAll(Set)}
+     * <p>
+     * Must delegate to the configured cache.
+     */
+    @Test
+    public void bulkOperations() {
+        final Map<String, String> entries = Collections.singletonMap("key", "value");
+        Mockito.when(mockCache.getAll(KEYS)).thenReturn(entries);
+
+        flowIdCache.putAll(entries);
+        Assert.assertSame(entries, flowIdCache.getAll(KEYS));
+        flowIdCache.removeAll(KEYS);
+
+        Mockito.verify(mockCache).putAll(entries);
+        Mockito.verify(mockCache).removeAll(KEYS);
+    }
+}
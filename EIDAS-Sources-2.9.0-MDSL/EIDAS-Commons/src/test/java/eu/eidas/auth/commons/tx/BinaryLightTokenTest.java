@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.commons.tx;
+
+import eu.eidas.auth.commons.EidasStringUtil;
+import eu.eidas.auth.commons.light.impl.LightToken;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.time.ZonedDateTime;
+
+/**
+ * Test class for {@link BinaryLightToken}
+ */
+public class BinaryLightTokenTest {
+
+    private static final byte[] TOKEN_BYTES = "MYSPECIFIC|f5e7e0f5-b9b8-4256-a7d0-4090141b326d|1956-10-23 10:52:01 698|digest".getBytes();
+
+    private static final LightToken LIGHT_TOKEN = new LightToken.Builder()
+            .id("f5e7e0f5-b9b8-4256-a7d0-4090141b326d")
+            .issuer("MYSPECIFIC")
+            .createdOn(ZonedDateTime.now())
+            .build();
+
+    /**
+     * Test method for {@link BinaryLightToken#getTokenByteBuffer()}
+     * <p>
+     * Must return a read-only view of the token bytes.
+     */
+    @Test(expected = ReadOnlyBufferException.class)
+    public void getTokenByteBuffer() {
+        final ByteBuffer tokenByteBuffer = new BinaryLightToken(LIGHT_TOKEN, TOKEN_BYTES).getTokenByteBuffer();
+
+        Assert.assertEquals(ByteBuffer.wrap(TOKEN_BYTES), tokenByteBuffer);
+        Assert.assertTrue(tokenByteBuffer.isReadOnly());
+        tokenByteBuffer.put(0, (byte) 0);
+    }
+
+    /**
+     * Test method for {@link BinaryLightToken#getTokenBase64()}
+     * <p>
+     * Must return the token bytes encoded in BASE64.
+     */
+    @Test
+    public void getTokenBase64() {
+        final BinaryLightToken binaryLightToken = new BinaryLightToken(LIGHT_TOKEN, TOKEN_BYTES);
+
+        Assert.assertEquals(EidasStringUtil.encodeToBase64(TOKEN_BYTES), binaryLightToken.getTokenBase64());
+    }
+
+    /**
+     * Test method for {@link BinaryLightToken#BinaryLightToken(eu.eidas.auth.commons.light.ILightToken, byte[])}
+     * when the given array is modified afterwards
+     * <p>
+     * Must not change the token bytes.
+     */
+    @Test
+    public void constructorCopiesTokenBytes() {
+        final byte[] tokenBytes = TOKEN_BYTES.clone();
+        final BinaryLightToken binaryLightToken = new BinaryLightToken(LIGHT_TOKEN, tokenBytes);
+        tokenBytes[0] = 0;
+
+        Assert.assertArrayEquals(TOKEN_BYTES, binaryLightToken.getTokenBytes());
+    }
+}
@@ -45,6 +45,8 @@ public class LightTokenEncoderTest {
 
     private static final String ALGORITHM = "SHA-256";
 
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
     private static final String ID = "f5e7e0f5-b9b8-4256-a7d0-4090141b326d";
 
     private static final String ISSUER = "MYSPECIFIC";
@@ -63,6 +65,16 @@ public class LightTokenEncoderTest {
             .append("1040jxHfWeTgn98YczCpon3m+zOHdVXgYkdOjyKVaJA=")
             .toString();
 
+    private static String HMAC_TOKEN = new StringBuilder()
+            .append("MYSPECIFIC")
+            .append(AbstractLightToken.SEPARATOR)
+            .append("f5e7e0f5-b9b8-4256-a7d0-4090141b326d")
+            .append(AbstractLightToken.SEPARATOR)
+            .append("1956-10-23 10:52:01 698")
+            .append(AbstractLightToken.SEPARATOR)
+            .append("DrcIpDek6hAm9i7ePOqbnqlGSHEcWVzcV2o6jNjO+kk=")
+            .toString();
+
     private static String TOKEN_BAD_DATE = new StringBuilder()
             .append("MYSPECIFIC")
             .append(AbstractLightToken.SEPARATOR)
@@ -269,4 +281,89 @@ public class LightTokenEncoderTest {
 
         LightTokenEncoder.decode(TOKEN_MANYPARTS.getBytes(), SECRET, ALGORITHM);
     }
+
+    /**
+     * Test method for
+     * {@link LightTokenEncoder#encode(ILightToken, String, String)}
+     * when the algorithm is a HMAC one
+     * <p>
+     * Must succeed.
+     */
+    @Test
+    public void testEncodeHmac() throws NoSuchAlgorithmException {
+        LightToken lightToken = new LightToken.Builder().id(ID)
+                .issuer(ISSUER)
+                .createdOn(TIMESTAMP.atZone(ZoneId.systemDefault()))
+                .build();
+        BinaryLightToken binaryToken = LightTokenEncoder.encode(lightToken, SECRET, HMAC_ALGORITHM);
+
+        assertNotNull(binaryToken);
+        assertEquals(binaryToken.getToken(), lightToken);
+        assertArrayEquals(binaryToken.getTokenBytes(), HMAC_TOKEN.getBytes());
+    }
+
+    /**
+     * Test method for
+     * {@link LightTokenEncoder#decode(byte[], String, String)}
+     * when the algorithm is a HMAC one
+     * <p>
+     * Must succeed.
+     */
+    @Test
+    public void testDecodeHmac() throws NoSuchAlgorithmException {
+        LightToken lightToken = new LightToken.Builder().id(ID)
+                .issuer(ISSUER)
+                .createdOn(TIMESTAMP.atZone(ZoneId.systemDefault()))
+                .build();
+        BinaryLightToken binaryToken = LightTokenEncoder.decode(HMAC_TOKEN.getBytes(), SECRET, HMAC_ALGORITHM);
+
+        assertNotNull(binaryToken);
+        assertArrayEquals(binaryToken.getTokenBytes(), HMAC_TOKEN.getBytes());
+        assertEquals(lightToken, binaryToken.getToken());
+    }
+
+    /**
+     * Test method for
+     * {@link LightTokenEncoder#decode(byte[], String, String)}
+     * when the algorithm is a HMAC one and the secret is incorrect
+     * <p>
+     * Must fail.
+     */
+    @Test
+    public void testDecodeHmacFailsOnBadSecret() throws NoSuchAlgorithmException {
+        LightTokenEncoder.decode(HMAC_TOKEN.getBytes(), SECRET, HMAC_ALGORITHM);
+
+        expectedException.expect(SecurityEIDASException.class);
+        expectedException.expectMessage("LightToken digest failure");
+        LightTokenEncoder.decode(HMAC_TOKEN.getBytes(), SECRET + "2", HMAC_ALGORITHM);
+    }
+
+    /**
+     * Test method for
+     * {@link LightTokenEncoder#decode(byte[], String, String)}
+     * when the algorithm is a HMAC one and the token digest is a {@link java.security.MessageDigest} one
+     * <p>
+     * Must fail.
+     */
+    @Test
+    public void testDecodeHmacFailsOnMessageDigestToken() throws NoSuchAlgorithmException {
+        expectedException.expect(SecurityEIDASException.class);
+        expectedException.expectMessage("LightToken digest failure");
+        LightTokenEncoder.decode(TOKEN.getBytes(), SECRET, HMAC_ALGORITHM);
+    }
+
+    /**
+     * Test method for
+     * {@link LightTokenEncoder#decode(byte[], String, String)}
+     * when the token has an empty part
+     * <p>
+     * Must fail.
+     */
+    @Test
+    public void testDecodeFailsEmptyPart() throws NoSuchAlgorithmException {
+        expectedException.expect(SecurityEIDASException.class);
+        expectedException.expectMessage("LightToken parse error");
+
+        LightTokenEncoder.decode(("|" + ID + "|1956-10-23 10:52:01 698|1040jxHfWeTgn98YczCpon3m+zOHdVXgYkdOjyKVaJA=").getBytes(), SECRET, ALGORITHM);
+    }
 }
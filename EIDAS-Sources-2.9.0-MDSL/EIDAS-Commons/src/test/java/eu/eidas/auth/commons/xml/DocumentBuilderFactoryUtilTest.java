@@ -18,6 +18,8 @@
 
 package eu.eidas.auth.commons.xml;
 
+import eu.eidas.auth.commons.EidasStringUtil;
+import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -73,4 +75,43 @@ public class DocumentBuilderFactoryUtilTest {
         securedDocumentBuilder.parse(inputSource);
     }
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link DocumentBuilderFactoryUtil#getRootElementAttribute(byte[], String)}
+     * when the root element has the attribute
+     * <p>
+     * Must return the value of the attribute of the root element only.
+     */
+    @Test
+    public void getRootElementAttribute() {
+        final byte[] xmlBytes = EidasStringUtil.getBytes("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<saml2p:AuthnRequest xmlns:saml2p=\"urn:oasis:names:tc:SAML:2.0:protocol\" ID=\"_requestId\">"
+                + "<saml2p:Extensions ID=\"_otherId\"/></saml2p:AuthnRequest>");
+
+        Assert.assertEquals("_requestId", DocumentBuilderFactoryUtil.getRootElementAttribute(xmlBytes, "ID"));
+        Assert.assertNull(DocumentBuilderFactoryUtil.getRootElementAttribute(xmlBytes, "Destination"));
+    }
+
+    /**
+     * Test method for {@link DocumentBuilderFactoryUtil#getRootElementAttribute(byte[], String)}
+     * when the document contains a DTD with an external entity
+     * <p>
+     * Must return null.
+     */
+    @Test
+    public void getRootElementAttributeWithExternalEntity() {
+        final byte[] xmlBytes = EidasStringUtil.getBytes(maliciousXMLSample.replace("<foo>", "<foo ID=\"&xxe;\">"));
+
+        Assert.assertNull(DocumentBuilderFactoryUtil.getRootElementAttribute(xmlBytes, "ID"));
+    }
+
+    /**
+     * Test method for {@link DocumentBuilderFactoryUtil#getRootElementAttribute(byte[], String)}
+     * when the bytes are not XML
+     * <p>
+     * Must return null.
+     */
+    @Test
+    public void getRootElementAttributeNotXml() {
+        Assert.assertNull(DocumentBuilderFactoryUtil.getRootElementAttribute(new byte[]{1, 2, 3}, "ID"));
+    }
+}
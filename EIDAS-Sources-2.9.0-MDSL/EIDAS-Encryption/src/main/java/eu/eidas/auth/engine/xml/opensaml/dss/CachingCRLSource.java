@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package eu.eidas.auth.engine.xml.opensaml.dss;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.revocation.crl.CRL;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link CRLSource} keeping the CRL based revocation data of another source until their nextUpdate.
+ */
+public class CachingCRLSource extends CachingRevocationSource<CRL, CRLToken> implements CRLSource {
+
+    private final CRLSource proxiedSource;
+
+    public CachingCRLSource(@Nonnull final CRLSource proxiedSource) {
+        this.proxiedSource = proxiedSource;
+    }
+
+    @Override
+    public CRLToken getRevocationToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+        return getCachedRevocationToken(certificateToken, issuerCertificateToken);
+    }
+
+    @Override
+    protected CRLToken loadRevocationToken(@Nonnull final CertificateToken certificateToken,
+                                            @Nonnull final CertificateToken issuerCertificateToken) {
+        return proxiedSource.getRevocationToken(certificateToken, issuerCertificateToken);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package eu.eidas.auth.engine.xml.opensaml.dss;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.revocation.Revocation;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the revocation data returned by another (usually online) revocation source until it expires, so that the
+ * responder is not queried for every certificate validation.
+ * <p>
+ * A token is kept until its nextUpdate. A token without nextUpdate is not kept.
+ *
+ * @param <R> the type of revocation data
+ * @param <T> the type of revocation token
+ */
+public abstract class CachingRevocationSource<R extends Revocation, T extends RevocationToken<R>> {
+
+    /**
+     * Maximum number of cached tokens.
+     */
+    public static final int MAX_ENTRIES = 1000;
+
+    private final ConcurrentMap<String, CachedToken<T>> cachedTokens = new ConcurrentHashMap<>();
+
+    private volatile Clock clock = Clock.systemUTC();
+
+    /**
+     * Retrieves the revocation token from the proxied source.
+     *
+     * @param certificateToken the certificate to get the revocation data for
+     * @param issuerCertificateToken the issuer of the certificate
+     * @return the revocation token or {@code null} if the proxied source has none
+     */
+    @Nullable
+    protected abstract T loadRevocationToken(@Nonnull CertificateToken certificateToken,
+                                             @Nonnull CertificateToken issuerCertificateToken);
+
+    /**
+     * Returns the cached token of the certificate if it has not expired, otherwise retrieves it from the proxied
+     * source.
+     *
+     * @param certificateToken the certificate to get the revocation data for
+     * @param issuerCertificateToken the issuer of the certificate
+     * @return the revocation token or {@code null} if the proxied source has none
+     */
+    @Nullable
+    protected T getCachedRevocationToken(@Nonnull final CertificateToken certificateToken,
+                                         @Nonnull final CertificateToken issuerCertificateToken) {
+        final String key = getKey(certificateToken, issuerCertificateToken);
+        final Instant now = clock.instant();
+        final CachedToken<T> cachedToken = cachedTokens.get(key);
+        if (null != cachedToken) {
+            if (now.isBefore(cachedToken.expiry)) {
+                return cachedToken.token;
+            }
+            cachedTokens.remove(key, cachedToken);
+        }
+        return load(key, certificateToken, issuerCertificateToken);
+    }
+
+    /**
+     * Removes all the cached tokens.
+     */
+    public void clear() {
+        cachedTokens.clear();
+    }
+
+    private T load(final String key, final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+        final T token = loadRevocationToken(certificateToken, issuerCertificateToken);
+        final Instant expiry = getExpiry(token);
+        if (null != expiry && expiry.isAfter(clock.instant()) && hasRoomFor(key)) {
+            cachedTokens.put(key, new CachedToken<>(token, expiry));
+        }
+        return token;
+    }
+
+    /**
+     * The cache is bounded: expired tokens are purged when it is full, and a new token is not cached when there is
+     * still no room for it.
+     */
+    private boolean hasRoomFor(final String key) {
+        if (cachedTokens.size() < MAX_ENTRIES || cachedTokens.containsKey(key)) {
+            return true;
+        }
+        final Instant now = clock.instant();
+        cachedTokens.values().removeIf(cachedToken -> !now.isBefore(cachedToken.expiry));
+        return cachedTokens.size() < MAX_ENTRIES;
+    }
+
+    @Nullable
+    private static Instant getExpiry(@Nullable final RevocationToken<?> token) {
+        if (null == token) {
+            return null;
+        }
+        final Date nextUpdate = token.getNextUpdate();
+        return null == nextUpdate ? null : nextUpdate.toInstant();
+    }
+
+    private static String getKey(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+        return certificateToken.getDSSIdAsString() + '|' + issuerCertificateToken.getDSSIdAsString();
+    }
+
+    void setClock(@Nonnull final Clock clock) {
+        this.clock = clock;
+    }
+
+    private static final class CachedToken<T> {
+
+        private final T token;
+
+        private final Instant expiry;
+
+        private CachedToken(final T token, final Instant expiry) {
+            this.token = token;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import eu.europa.esig.dss.service.ocsp.OnlineOCSPSource;
 import eu.europa.esig.dss.spi.x509.CertificateReorderer;
 import eu.europa.esig.dss.spi.x509.CommonCertificateSource;
 import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
 import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
 import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
 import eu.europa.esig.dss.validation.CertificateVerifier;
@@ -44,29 +45,87 @@ import org.apache.hc.client5.http.ssl.TrustAllStrategy;
 import org.opensaml.security.x509.X509Credential;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.XMLConstants;
 import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+
+/**
+ * Verifies the trust of a certificate with the DSS library, building its certification path to one of the trust
+ * anchors and checking the revocation status of the certificates of the path.
+ * <p>
+ * Peers sign all their messages with the same certificate, so the positive results are kept: the same certificate,
+ * presented with the same chain, against the same trust anchors and with the same revocation settings, is trusted
+ * without building its path again. A result is kept at most for {@link #VALIDATED_CHAIN_TIME_TO_LIVE}, and never beyond
+ * the expiry of a certificate of the path nor the nextUpdate of the revocation data used. Failures are not kept, and
+ * neither is a result accepted without revocation data while the revocation is checked (soft fail).
+ */
 public class DSSCertificateTrustVerifier implements CertificateTrustVerifier {
     private final static String EX_UNTRUSTED_CERT = "untrusted certificate";
 
+    /**
+     * Maximum number of positive validation results kept.
+     */
+    public static final int MAX_VALIDATED_CHAINS = 1000;
+
+    /**
+     * Maximum time a positive validation result is kept.
+     */
+    public static final Duration VALIDATED_CHAIN_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    /**
+     * Maximum number of distinct sets of trust anchors whose trusted certificate source is kept for reuse.
+     */
+    private final static int MAX_TRUSTED_CERTIFICATE_SOURCES = 32;
+
     private final OCSPSource ocspSource;
     private final CRLSource crlSource;
 
+    private final Map<Set<X509Certificate>, CommonTrustedCertificateSource> trustedCertificateSources =
+            Collections.synchronizedMap(new LinkedHashMap<Set<X509Certificate>, CommonTrustedCertificateSource>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Set<X509Certificate>, CommonTrustedCertificateSource> eldest) {
+                    return size() > MAX_TRUSTED_CERTIFICATE_SOURCES;
+                }
+            });
+
+    private final Map<List<Object>, Instant> validatedChains =
+            Collections.synchronizedMap(new LinkedHashMap<List<Object>, Instant>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, Instant> eldest) {
+                    return size() > MAX_VALIDATED_CHAINS;
+                }
+            });
+
+    private volatile Clock clock = Clock.systemUTC();
+
+    /**
+     * Creates a verifier retrieving the revocation data online, and keeping it until its nextUpdate.
+     */
     public DSSCertificateTrustVerifier() {
         final CommonsDataLoader dataLoader = new CommonsDataLoader();
         dataLoader.setTrustStrategy(TrustAllStrategy.INSTANCE);
 
-        this.ocspSource = new OnlineOCSPSource(new OCSPDataLoader());
-        this.crlSource = new OnlineCRLSource(dataLoader);
+        this.ocspSource = new CachingOCSPSource(new OnlineOCSPSource(new OCSPDataLoader()));
+        this.crlSource = new CachingCRLSource(new OnlineCRLSource(dataLoader));
+        configureSecureSchemaFactoryBuilder();
     }
 
     public DSSCertificateTrustVerifier(final OCSPSource ocspSource, final CRLSource crlSource) {
         this.ocspSource = ocspSource;
         this.crlSource = crlSource;
+        configureSecureSchemaFactoryBuilder();
     }
 
     @Override
@@ -80,7 +139,15 @@ public class DSSCertificateTrustVerifier implements CertificateTrustVerifier {
         final CommonCertificateSource adjunctCertificates = this.createAdjunctCertificateSource(target.getEntityCertificateChain());
 
         // Add all trust anchors to trusted certificate store
-        final CommonTrustedCertificateSource trustedCertificateSource = this.createTrustedCertificateSource(trustAnchors);
+        final CommonTrustedCertificateSource trustedCertificateSource = this.getTrustedCertificateSource(trustAnchors);
+
+        // The shared trusted certificate source identifies the set of trust anchors
+        final List<Object> validatedChainKey = Arrays.asList(target.getEntityCertificate(),
+                target.getEntityCertificateChain(), trustedCertificateSource,
+                verifierParams.isCheckRevocation(), verifierParams.isSoftFailRevocation());
+        if (isValidatedChain(validatedChainKey)) {
+            return;
+        }
 
         final CertificateVerifier certificateVerifier = this.createDefaultVerifier(trustedCertificateSource, adjunctCertificates);
 
@@ -102,13 +169,16 @@ public class DSSCertificateTrustVerifier implements CertificateTrustVerifier {
 
         final Map<CertificateToken, List<CertificateToken>> orderedCertificateChains = cr.getOrderedCertificateChains();
 
-        for (final CertificateToken certificateToken : orderedCertificateChains.get(certificateToValidate)) {
+        final List<CertificateToken> certificatePath = orderedCertificateChains.get(certificateToValidate);
+        for (int i = 0; i < certificatePath.size(); i++) {
             final boolean isTrusted = signatureValidationContext.getAllCertificateSources()
-                    .getCertificateSourceType(certificateToken)
+                    .getCertificateSourceType(certificatePath.get(i))
                     .stream()
                     .anyMatch(CertificateSourceType::isTrusted);
 
             if (isTrusted) {
+                addValidatedChain(validatedChainKey, certificatePath, certificatePath.subList(0, i),
+                        signatureValidationContext.getProcessedRevocations(), verifierParams.isCheckRevocation());
                 return; // One valid trust anchor found, search can be stopped
             }
         }
@@ -116,6 +186,77 @@ public class DSSCertificateTrustVerifier implements CertificateTrustVerifier {
         throw new UntrustedCertificateException(EX_UNTRUSTED_CERT);
     }
 
+    private boolean isValidatedChain(final List<Object> validatedChainKey) {
+        final Instant expiry = validatedChains.get(validatedChainKey);
+        if (null == expiry) {
+            return false;
+        }
+        if (clock.instant().isBefore(expiry)) {
+            return true;
+        }
+        validatedChains.remove(validatedChainKey, expiry);
+        return false;
+    }
+
+    /**
+     * Keeps the positive result until the time to live elapses, a certificate of the path expires or the revocation
+     * data used must be updated, whichever comes first.
+     * <p>
+     * When the revocation is checked, the result is kept only if revocation data was obtained for each certificate
+     * below the trust anchor: a certificate accepted by soft fail is validated again on the next message.
+     */
+    private void addValidatedChain(final List<Object> validatedChainKey,
+                                   final Collection<CertificateToken> certificatePath,
+                                   final Collection<CertificateToken> revocationCheckedCertificates,
+                                   final Collection<RevocationToken> revocationTokens,
+                                   final boolean checkRevocation) {
+        if (checkRevocation && !hasRevocationData(revocationCheckedCertificates, revocationTokens)) {
+            return;
+        }
+        final Instant now = clock.instant();
+        Instant expiry = now.plus(VALIDATED_CHAIN_TIME_TO_LIVE);
+        for (final CertificateToken certificateToken : certificatePath) {
+            expiry = earliest(expiry, certificateToken.getNotAfter());
+        }
+        for (final RevocationToken revocationToken : revocationTokens) {
+            expiry = earliest(expiry, revocationToken.getNextUpdate());
+        }
+        if (now.isBefore(expiry)) {
+            validatedChains.put(validatedChainKey, expiry);
+        }
+    }
+
+    private static boolean hasRevocationData(final Collection<CertificateToken> certificates,
+                                             final Collection<RevocationToken> revocationTokens) {
+        final Set<CertificateToken> certificatesWithRevocationData = new HashSet<>();
+        for (final RevocationToken revocationToken : revocationTokens) {
+            certificatesWithRevocationData.add(revocationToken.getRelatedCertificate());
+        }
+        return certificatesWithRevocationData.containsAll(certificates);
+    }
+
+    private static Instant earliest(final Instant instant, @Nullable final Date date) {
+        return null == date || instant.isBefore(date.toInstant()) ? instant : date.toInstant();
+    }
+
+    void setClock(@Nonnull final Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * The trusted certificate source is only read during a validation, so the one of a given set of trust anchors is
+     * built once and shared.
+     */
+    private CommonTrustedCertificateSource getTrustedCertificateSource(final Collection<X509Certificate> trustAnchors) {
+        final Set<X509Certificate> trustAnchorSet = new HashSet<>(trustAnchors);
+        CommonTrustedCertificateSource trustedCertificateSource = trustedCertificateSources.get(trustAnchorSet);
+        if (null == trustedCertificateSource) {
+            trustedCertificateSource = this.createTrustedCertificateSource(trustAnchorSet);
+            trustedCertificateSources.put(trustAnchorSet, trustedCertificateSource);
+        }
+        return trustedCertificateSource;
+    }
+
     private CommonTrustedCertificateSource createTrustedCertificateSource(final Collection<X509Certificate> trustAnchors) {
         final CommonTrustedCertificateSource trustedCertificateSource = new CommonTrustedCertificateSource();
         trustAnchors.stream()
@@ -157,7 +298,6 @@ public class DSSCertificateTrustVerifier implements CertificateTrustVerifier {
     private CertificateVerifier createDefaultVerifier(final CommonTrustedCertificateSource trustedCertificateSource,
                                                       final CommonCertificateSource adjunctCertificates) {
 
-        configureSecureSchemaFactoryBuilder();
         final CertificateVerifier certificateVerifier = new CommonCertificateVerifier();
         certificateVerifier.setAIASource(null);
         certificateVerifier.setOcspSource(this.ocspSource);
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package eu.eidas.auth.engine.xml.opensaml.dss;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Test class for {@link CachingRevocationSource}
+ */
+public class CachingRevocationSourceTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    private OCSPSource onlineSource;
+
+    private CachingOCSPSource cachingSource;
+
+    private CertificateToken certificate;
+
+    private CertificateToken issuer;
+
+    @Before
+    public void setUp() {
+        onlineSource = Mockito.mock(OCSPSource.class);
+        cachingSource = new CachingOCSPSource(onlineSource);
+        cachingSource.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        certificate = Mockito.mock(CertificateToken.class);
+        Mockito.when(certificate.getDSSIdAsString()).thenReturn("C-CERTIFICATE");
+        issuer = Mockito.mock(CertificateToken.class);
+        Mockito.when(issuer.getDSSIdAsString()).thenReturn("C-ISSUER");
+    }
+
+    /**
+     * Test method for
+     * {@link CachingOCSPSource#getRevocationToken(CertificateToken, CertificateToken)}
+     * when the response has a nextUpdate in the future
+     * <p>
+     * Must query the online source only once.
+     */
+    @Test
+    public void getRevocationTokenCachedUntilNextUpdate() {
+        final OCSPToken token = mockToken(NOW.minus(Duration.ofHours(1)), NOW.plus(Duration.ofHours(1)));
+        Mockito.when(onlineSource.getRevocationToken(certificate, issuer)).thenReturn(token);
+
+        Assert.assertSame(token, cachingSource.getRevocationToken(certificate, issuer));
+        Assert.assertSame(token, cachingSource.getRevocationToken(certificate, issuer));
+
+        Mockito.verify(onlineSource, Mockito.times(1)).getRevocationToken(certificate, issuer);
+    }
+
+    /**
+     * Test method for
+     * {@link CachingOCSPSource#getRevocationToken(CertificateToken, CertificateToken)}
+     * when the cached response has reached its nextUpdate
+     * <p>
+     * Must query the online source again.
+     */
+    @Test
+    public void getRevocationTokenExpired() {
+        final OCSPToken token = mockToken(NOW.minus(Duration.ofHours(1)), NOW.plus(Duration.ofMinutes(5)));
+        Mockito.when(onlineSource.getRevocationToken(certificate, issuer)).thenReturn(token);
+
+        cachingSource.getRevocationToken(certificate, issuer);
+        cachingSource.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+        cachingSource.getRevocationToken(certificate, issuer);
+
+        Mockito.verify(onlineSource, Mockito.times(2)).getRevocationToken(certificate, issuer);
+    }
+
+    /**
+     * Test method for
+     * {@link CachingOCSPSource#getRevocationToken(CertificateToken, CertificateToken)}
+     * when the response has no nextUpdate
+     * <p>
+     * Must not cache the response.
+     */
+    @Test
+    public void getRevocationTokenWithoutNextUpdate() {
+        final OCSPToken token = mockToken(NOW, null);
+        Mockito.when(onlineSource.getRevocationToken(certificate, issuer)).thenReturn(token);
+
+        cachingSource.getRevocationToken(certificate, issuer);
+        cachingSource.getRevocationToken(certificate, issuer);
+
+        Mockito.verify(onlineSource, Mockito.times(2)).getRevocationToken(certificate, issuer);
+    }
+
+    /**
+     * Test method for
+     * {@link CachingOCSPSource#getRevocationToken(CertificateToken, CertificateToken)}
+     * when the online source has no response
+     * <p>
+     * Must not cache the absence of response.
+     */
+    @Test
+    public void getRevocationTokenNull() {
+        Mockito.when(onlineSource.getRevocationToken(certificate, issuer)).thenReturn(null);
+
+        Assert.assertNull(cachingSource.getRevocationToken(certificate, issuer));
+        Assert.assertNull(cachingSource.getRevocationToken(certificate, issuer));
+
+        Mockito.verify(onlineSource, Mockito.times(2)).getRevocationToken(certificate, issuer);
+    }
+
+    private static OCSPToken mockToken(Instant thisUpdate, Instant nextUpdate) {
+        final OCSPToken token = Mockito.mock(OCSPToken.class);
+        Mockito.when(token.getThisUpdate()).thenReturn(null == thisUpdate ? null : Date.from(thisUpdate));
+        Mockito.when(token.getNextUpdate()).thenReturn(null == nextUpdate ? null : Date.from(nextUpdate));
+        return token;
+    }
+}
@@ -37,6 +37,7 @@ import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.Mockito;
 import org.opensaml.security.x509.BasicX509Credential;
 
 import eu.eidas.auth.engine.xml.opensaml.CertificateVerifierParams;
@@ -447,6 +448,64 @@ public class DSSCertificateTrustVerifierTest {
         verifier.verify(target, getPkiTrustAnchors(), new CertificateVerifierParams(true, false));
     }
 
+    /**
+     * Test method for
+     * {@link DSSCertificateTrustVerifier#verify(X509Credential, Collection, CertificateVerifierParams)}
+     * When the same certificate is verified twice against the same trust anchors.
+     * <p>
+     * Must succeed and build the certification path only once.
+     */
+    @Test
+    public void testValidatedChainReused() {
+        final PKICRLSource crlSource = Mockito.spy(new PKICRLSource(certificateRepository));
+        final DSSCertificateTrustVerifier cachingVerifier = new DSSCertificateTrustVerifier(new PKIOCSPSource(certificateRepository), crlSource);
+        final BasicX509Credential target = loadPkiCredential("good-user-crl");
+
+        cachingVerifier.verify(target, getPkiTrustAnchors(), new CertificateVerifierParams());
+        Mockito.verify(crlSource, Mockito.atLeastOnce()).getRevocationToken(Mockito.any(CertificateToken.class), Mockito.any(CertificateToken.class));
+        Mockito.clearInvocations(crlSource);
+        cachingVerifier.verify(target, getPkiTrustAnchors(), new CertificateVerifierParams());
+
+        Mockito.verify(crlSource, Mockito.never()).getRevocationToken(Mockito.any(CertificateToken.class), Mockito.any(CertificateToken.class));
+    }
+
+    /**
+     * Test method for
+     * {@link DSSCertificateTrustVerifier#verify(X509Credential, Collection, CertificateVerifierParams)}
+     * When the same certificate is verified twice, and was accepted the first time by soft fail without revocation data.
+     * <p>
+     * Must succeed and build the certification path each time, querying the revocation data again.
+     */
+    @Test
+    public void testValidatedChainWithoutRevocationDataNotKept() {
+        final PKIOCSPSource ocspSource = Mockito.spy(new PKIOCSPSource(certificateRepository));
+        final DSSCertificateTrustVerifier cachingVerifier = new DSSCertificateTrustVerifier(ocspSource, new PKICRLSource(certificateRepository));
+        final BasicX509Credential target = loadPkiCredential("good-user-ocsp-only-fail");
+
+        cachingVerifier.verify(target, getPkiTrustAnchors(), new CertificateVerifierParams());
+        Mockito.clearInvocations(ocspSource);
+        cachingVerifier.verify(target, getPkiTrustAnchors(), new CertificateVerifierParams());
+
+        Mockito.verify(ocspSource, Mockito.atLeastOnce()).getRevocationToken(Mockito.any(CertificateToken.class), Mockito.any(CertificateToken.class));
+    }
+
+    /**
+     * Test method for
+     * {@link DSSCertificateTrustVerifier#verify(X509Credential, Collection, CertificateVerifierParams)}
+     * When a certificate validated without revocation check is verified again with revocation check.
+     * <p>
+     * Must fail.
+     */
+    @Test
+    public void testValidatedChainNotReusedWithOtherParams() {
+        this.thrown.expect(CertificateRevokedException.class);
+        final DSSCertificateTrustVerifier cachingVerifier = new DSSCertificateTrustVerifier(new PKIOCSPSource(certificateRepository), new PKICRLSource(certificateRepository));
+        final BasicX509Credential target = loadPkiCredential("revoked-user-crl");
+
+        cachingVerifier.verify(target, getPkiTrustAnchors(), DISABLE_REVOCATION_CHECK);
+        cachingVerifier.verify(target, getPkiTrustAnchors(), new CertificateVerifierParams());
+    }
+
     private static BasicX509Credential loadPkiCredential(final String subject) {
         final JAXBCertEntity certEntity = certificateRepository.getCertEntityBySubject(subject);
 
@@ -27,11 +27,37 @@ import java.util.concurrent.TimeUnit;
 /**
  * Default implementation of the cache provider using ExpiringBoundedCache.
  * This implementation is not production-ready as there is no clustering.
+ * <p>
+ * The cache is built once, when it is first obtained, and the same instance is returned afterwards. Its expiry policy
+ * and time to live are set per bean, like the ones of the caches of the distributed configuration, and default to an
+ * expiry of 1800 seconds after access.
  */
 public class ConcurrentMapJcacheServiceDefaultImpl implements ConcurrentCacheService, ConcurrentMapService {
 
-    private Long expireAfterAccess = 1800L;
-    private Long maximumSize = 1000000L;
+    /**
+     * Expiry policies of the cache entries.
+     */
+    public enum ExpiryPolicy {
+        /**
+         * The entries expire after the time to live counted from their creation or update.
+         */
+        CREATED,
+        /**
+         * The entries expire after the time to live counted from their last access.
+         */
+        ACCESSED
+    }
+
+    private static final long DEFAULT_TIME_TO_LIVE = 1800L;
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 1000000L;
+
+    private ExpiryPolicy expiryPolicy;
+    private Long timeToLive;
+    private Long maximumSize;
+
+    private volatile ConcurrentMap mapCache;
+    private volatile javax.cache.Cache cache;
 
     /**
      * Obtains the JCache-compliant cache.
@@ -40,8 +66,18 @@ public class ConcurrentMapJcacheServiceDefaultImpl implements ConcurrentCacheSer
      */
     @Override
     public javax.cache.Cache getConfiguredCache() {
-        // Returning a JCache-compliant cache view of the ExpiringBoundedCache for compatibility
-        return new JCacheConcurrentMapAdapter(getConfiguredMapCache());
+        javax.cache.Cache result = cache;
+        if (null == result) {
+            synchronized (this) {
+                result = cache;
+                if (null == result) {
+                    // Returning a JCache-compliant cache view of the ExpiringBoundedCache for compatibility
+                    result = new JCacheConcurrentMapAdapter(getConfiguredMapCache());
+                    cache = result;
+                }
+            }
+        }
+        return result;
     }
 
     /**
@@ -51,9 +87,68 @@ public class ConcurrentMapJcacheServiceDefaultImpl implements ConcurrentCacheSer
      */
     @Override
     public ConcurrentMap getConfiguredMapCache() {
-        return CacheBuilder.newBuilder()
-                .expireAfterAccess(getExpireAfterAccess(), TimeUnit.SECONDS)
-                .maximumSize(getMaximumSize()).build().asMap();
+        ConcurrentMap result = mapCache;
+        if (null == result) {
+            synchronized (this) {
+                result = mapCache;
+                if (null == result) {
+                    result = buildMapCache();
+                    mapCache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the map cache, once per instance.
+     *
+     * @return a concurrent map configured with the expiry policy, time to live and maximum size
+     */
+    protected ConcurrentMap buildMapCache() {
+        final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        if (ExpiryPolicy.CREATED == getExpiryPolicy()) {
+            cacheBuilder.expireAfterWrite(getTimeToLive(), TimeUnit.SECONDS);
+        } else {
+            cacheBuilder.expireAfterAccess(getTimeToLive(), TimeUnit.SECONDS);
+        }
+        return cacheBuilder.maximumSize(getMaximumSize()).build().asMap();
+    }
+
+    /**
+     * Gets the expiry policy of the cache entries.
+     *
+     * @return the expiry policy of the cache entries
+     */
+    public ExpiryPolicy getExpiryPolicy() {
+        return null == expiryPolicy ? ExpiryPolicy.ACCESSED : expiryPolicy;
+    }
+
+    /**
+     * Sets the expiry policy of the cache entries.
+     *
+     * @param expiryPolicy the expiry policy
+     */
+    public void setExpiryPolicy(ExpiryPolicy expiryPolicy) {
+        this.expiryPolicy = expiryPolicy;
+    }
+
+    /**
+     * Gets the time to live of the cache entries.
+     *
+     * @return the time to live in seconds
+     */
+    public Long getTimeToLive() {
+        return null == timeToLive ? DEFAULT_TIME_TO_LIVE : timeToLive;
+    }
+
+    /**
+     * Sets the time to live of the cache entries.
+     *
+     * @param timeToLive the time to live in seconds
+     */
+    public void setTimeToLive(Long timeToLive) {
+        this.timeToLive = timeToLive;
     }
 
     /**
@@ -62,16 +157,18 @@ public class ConcurrentMapJcacheServiceDefaultImpl implements ConcurrentCacheSer
      * @return the expiration time in seconds
      */
     public Long getExpireAfterAccess() {
-        return expireAfterAccess;
+        return getTimeToLive();
     }
 
     /**
-     * Sets the expiration time after access.
+     * Sets the expiration time after access: same as setting the {@link ExpiryPolicy#ACCESSED} expiry policy and the
+     * time to live.
      *
      * @param expireAfterAccess the expiration time in seconds
      */
     public void setExpireAfterAccess(Long expireAfterAccess) {
-        this.expireAfterAccess = expireAfterAccess;
+        setExpiryPolicy(ExpiryPolicy.ACCESSED);
+        setTimeToLive(expireAfterAccess);
     }
 
     /**
@@ -80,7 +177,7 @@ public class ConcurrentMapJcacheServiceDefaultImpl implements ConcurrentCacheSer
      * @return the maximum size of the cache
      */
     public Long getMaximumSize() {
-        return maximumSize;
+        return null == maximumSize ? DEFAULT_MAXIMUM_SIZE : maximumSize;
     }
 
     /**
@@ -26,8 +26,11 @@ import javax.cache.integration.CompletionListener;
 import javax.cache.processor.EntryProcessor;
 import javax.cache.processor.EntryProcessorException;
 import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
@@ -38,6 +41,10 @@ import java.util.concurrent.ConcurrentMap;
  * Uses, when possible, similar methods of {@link ConcurrentMap}.
  * When not possible, implements code to achieve the description of each
  * method in {@link Cache} API as much as possible.
+ * <p>
+ * The single entry operations are mapped onto the atomic operations of the {@link ConcurrentMap}, so that two
+ * concurrent calls of e.g. {@link #putIfAbsent(Object, Object)} cannot both succeed, as with a clustered cache.
+ * The {@link EntryProcessor} is applied atomically with {@link ConcurrentMap#compute}.
  *
  * @param <K> the key instance
  * @param <V> the value instance
@@ -63,7 +70,14 @@ public class JCacheConcurrentMapAdapter<K, V> implements Cache<K, V> {
 
     @Override
     public Map<K, V> getAll(Set<? extends K> set) {
-        throw new UnsupportedOperationException();
+        final Map<K, V> values = new HashMap<>();
+        for (K k : set) {
+            final V value = this.concurrentMap.get(k);
+            if (null != value) {
+                values.put(k, value);
+            }
+        }
+        return values;
     }
 
     @Override
@@ -83,15 +97,7 @@ public class JCacheConcurrentMapAdapter<K, V> implements Cache<K, V> {
 
     @Override
     public V getAndPut(K k, V v) {
-        V existentValue = this.concurrentMap.get(k);
-
-        if (null != existentValue) {
-            this.concurrentMap.remove(k);
-        }
-
-        this.concurrentMap.put(k, v);
-
-        return existentValue;
+        return this.concurrentMap.put(k, v);
     }
 
     @Override
@@ -101,19 +107,12 @@ public class JCacheConcurrentMapAdapter<K, V> implements Cache<K, V> {
 
     @Override
     public boolean putIfAbsent(K k, V v) {
-        if (!this.concurrentMap.containsKey(k)) {
-            this.concurrentMap.put(k, v);
-            return true;
-        } else {
-            return false;
-        }
+        return null == this.concurrentMap.putIfAbsent(k, v);
     }
 
     @Override
     public boolean remove(K k) {
-
-        this.concurrentMap.remove(k);
-        return false;
+        return null != this.concurrentMap.remove(k);
     }
 
     @Override
@@ -123,48 +122,22 @@ public class JCacheConcurrentMapAdapter<K, V> implements Cache<K, V> {
 
     @Override
     public V getAndRemove(K k) {
-        if (this.concurrentMap.containsKey(k)) {
-            V oldValue = this.concurrentMap.get(k);
-            this.concurrentMap.remove(k);
-            return oldValue;
-        } else {
-            return null;
-        }
+        return this.concurrentMap.remove(k);
     }
 
     @Override
     public boolean replace(K k, V v, V v1) {
-        V existentValue = this.concurrentMap.get(k);
-
-        if (existentValue.equals(v)) {
-            this.concurrentMap.replace(k, v1);
-            return true;
-        } else {
-            return false;
-        }
+        return this.concurrentMap.replace(k, v, v1);
     }
 
     @Override
     public boolean replace(K k, V v) {
-        V value = this.concurrentMap.get(k);
-
-        if (null != value) {
-            this.concurrentMap.replace(k, v);
-            return true;
-        } else {
-            return false;
-        }
+        return null != this.concurrentMap.replace(k, v);
     }
 
     @Override
     public V getAndReplace(K k, V v) {
-        if (this.concurrentMap.containsKey(k)) {
-            V oldValue = this.concurrentMap.get(k);
-            this.concurrentMap.put(k, v);
-            return oldValue;
-        } else {
-            return null;
-        }
+        return this.concurrentMap.replace(k, v);
     }
 
     @Override
@@ -189,12 +162,36 @@ public class JCacheConcurrentMapAdapter<K, V> implements Cache<K, V> {
 
     @Override
     public <T> T invoke(K k, EntryProcessor<K, V, T> entryProcessor, Object... objects) throws EntryProcessorException {
-        throw new UnsupportedOperationException();
+        Objects.requireNonNull(k, "key");
+        Objects.requireNonNull(entryProcessor, "entryProcessor");
+
+        final ConcurrentMapMutableEntry<K, V, T> entry = new ConcurrentMapMutableEntry<>(k, entryProcessor, objects);
+        try {
+            this.concurrentMap.compute(k, (key, value) -> entry.process(value));
+        } catch (EntryProcessorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new EntryProcessorException(e);
+        }
+        return entry.result;
     }
 
     @Override
     public <T> Map<K, EntryProcessorResult<T>> invokeAll(Set<? extends K> set, EntryProcessor<K, V, T> entryProcessor, Object... objects) {
-        throw new UnsupportedOperationException();
+        final Map<K, EntryProcessorResult<T>> results = new HashMap<>();
+        for (K k : set) {
+            try {
+                final T result = invoke(k, entryProcessor, objects);
+                if (null != result) {
+                    results.put(k, () -> result);
+                }
+            } catch (EntryProcessorException e) {
+                results.put(k, () -> {
+                    throw e;
+                });
+            }
+        }
+        return results;
     }
 
     @Override
@@ -234,6 +231,111 @@ public class JCacheConcurrentMapAdapter<K, V> implements Cache<K, V> {
 
     @Override
     public Iterator<Entry<K, V>> iterator() {
-        throw new UnsupportedOperationException();
+        final Iterator<Map.Entry<K, V>> iterator = this.concurrentMap.entrySet().iterator();
+        return new Iterator<Entry<K, V>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                return new ConcurrentMapEntry<>(iterator.next());
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+
+    /**
+     * {@link Entry} view of an entry of the {@link ConcurrentMap}.
+     */
+    private static final class ConcurrentMapEntry<K, V> implements Entry<K, V> {
+
+        private final K key;
+
+        private final V value;
+
+        private ConcurrentMapEntry(Map.Entry<K, V> mapEntry) {
+            this.key = mapEntry.getKey();
+            this.value = mapEntry.getValue();
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> aClass) {
+            throw new IllegalArgumentException("Unsupported class " + aClass);
+        }
+    }
+
+    /**
+     * {@link MutableEntry} given to an {@link EntryProcessor} while the entry is locked by
+     * {@link ConcurrentMap#compute}: the value it holds after the processing is the new value of the entry.
+     */
+    private static final class ConcurrentMapMutableEntry<K, V, T> implements MutableEntry<K, V> {
+
+        private final K key;
+
+        private final EntryProcessor<K, V, T> entryProcessor;
+
+        private final Object[] arguments;
+
+        private V value;
+
+        private T result;
+
+        private ConcurrentMapMutableEntry(K key, EntryProcessor<K, V, T> entryProcessor, Object[] arguments) {
+            this.key = key;
+            this.entryProcessor = entryProcessor;
+            this.arguments = arguments;
+        }
+
+        private V process(V currentValue) {
+            value = currentValue;
+            result = entryProcessor.process(this, arguments);
+            return value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean exists() {
+            return null != value;
+        }
+
+        @Override
+        public void remove() {
+            value = null;
+        }
+
+        @Override
+        public void setValue(V v) {
+            value = Objects.requireNonNull(v, "value");
+        }
+
+        @Override
+        public <U> U unwrap(Class<U> aClass) {
+            throw new IllegalArgumentException("Unsupported class " + aClass);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.cache;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * {@link ConcurrentMap} which keeps its values serialized in a fixed-size direct buffer, outside of the Java heap.
+ * <p>
+ * The buffer is written as a circular log: each put appends the serialized value, and when the buffer or the maximum
+ * number of entries is full, the oldest written entries are evicted first. Only the keys and a small record per entry
+ * stay on the heap. {@link String} values are stored as UTF-8, other values with Java serialization.
+ * <p>
+ * As with the JCache created and accessed expiry policies of the distributed configuration, an entry expires after the
+ * time to live counted from its creation, or from its last read for {@link ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy#ACCESSED},
+ * and updating an entry does not change its expiry time.
+ * <p>
+ * All operations hold the monitor of the map. The functions given to {@link #compute}, {@link #computeIfAbsent},
+ * {@link #computeIfPresent} and {@link #merge} run once, under that monitor, so they must be short and must not use
+ * the map.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class OffHeapConcurrentMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    private static final byte STRING_VALUE = 0;
+
+    private static final byte SERIALIZED_VALUE = 1;
+
+    private final ByteBuffer buffer;
+
+    private final int capacity;
+
+    private final long maximumSize;
+
+    private final boolean expireAfterAccess;
+
+    private final long timeToLiveMillis;
+
+    private final Clock clock;
+
+    private final Map<K, Record> index = new HashMap<>();
+
+    /**
+     * Records of the buffer, from the oldest written to the last written one.
+     */
+    private final ArrayDeque<Record> log = new ArrayDeque<>();
+
+    /**
+     * Position of the next record, counted from the creation of the buffer.
+     */
+    private long head;
+
+    /**
+     * Position of the oldest record, counted from the creation of the buffer.
+     */
+    private long tail;
+
+    private final Set<Map.Entry<K, V>> entrySet = new EntrySet();
+
+    OffHeapConcurrentMap(int maximumBytes, long maximumSize,
+                         @Nonnull ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy expiryPolicy, long timeToLiveSeconds) {
+        this(maximumBytes, maximumSize, expiryPolicy, timeToLiveSeconds, Clock.systemUTC());
+    }
+
+    OffHeapConcurrentMap(int maximumBytes, long maximumSize,
+                         @Nonnull ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy expiryPolicy, long timeToLiveSeconds,
+                         @Nonnull Clock clock) {
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("maximumBytes must be positive: " + maximumBytes);
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.buffer = ByteBuffer.allocateDirect(maximumBytes);
+        this.capacity = maximumBytes;
+        this.maximumSize = maximumSize;
+        this.expireAfterAccess = ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy.ACCESSED == expiryPolicy;
+        this.timeToLiveMillis = Math.multiplyExact(timeToLiveSeconds, 1000L);
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized V get(Object key) {
+        final Record record = liveRecord(key);
+        if (null == record) {
+            return null;
+        }
+        if (expireAfterAccess) {
+            record.expiresAt = clock.millis() + timeToLiveMillis;
+        }
+        return read(record);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return null != liveRecord(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        final byte[] bytes = encode(value);
+        synchronized (this) {
+            final Record previous = liveRecord(key);
+            if (null == previous) {
+                append(key, bytes, clock.millis() + timeToLiveMillis);
+                return null;
+            }
+            final V previousValue = read(previous);
+            append(key, bytes, previous.expiresAt);
+            return previousValue;
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        final byte[] bytes = encode(value);
+        synchronized (this) {
+            final Record previous = liveRecord(key);
+            if (null != previous) {
+                return read(previous);
+            }
+            append(key, bytes, clock.millis() + timeToLiveMillis);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        final Record record = liveRecord(key);
+        if (null == record) {
+            return null;
+        }
+        index.remove(key);
+        return read(record);
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        final Record record = liveRecord(key);
+        if (null == record || !read(record).equals(value)) {
+            return false;
+        }
+        index.remove(key);
+        return true;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(oldValue, "oldValue");
+        final byte[] bytes = encode(newValue);
+        synchronized (this) {
+            final Record record = liveRecord(key);
+            if (null == record || !read(record).equals(oldValue)) {
+                return false;
+            }
+            append(key, bytes, record.expiresAt);
+            return true;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        final byte[] bytes = encode(value);
+        synchronized (this) {
+            final Record record = liveRecord(key);
+            if (null == record) {
+                return null;
+            }
+            final V previousValue = read(record);
+            append(key, bytes, record.expiresAt);
+            return previousValue;
+        }
+    }
+
+    @Override
+    public synchronized V computeIfAbsent(K key, @Nonnull Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key, "key");
+        final Record record = liveRecord(key);
+        if (null != record) {
+            return read(record);
+        }
+        return store(key, null, mappingFunction.apply(key));
+    }
+
+    @Override
+    public synchronized V computeIfPresent(K key, @Nonnull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        final Record record = liveRecord(key);
+        if (null == record) {
+            return null;
+        }
+        return store(key, record, remappingFunction.apply(key, read(record)));
+    }
+
+    @Override
+    public synchronized V compute(K key, @Nonnull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        final Record record = liveRecord(key);
+        final V oldValue = null == record ? null : read(record);
+        return store(key, record, remappingFunction.apply(key, oldValue));
+    }
+
+    @Override
+    public synchronized V merge(K key, @Nonnull V value, @Nonnull BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        final Record record = liveRecord(key);
+        final V newValue = null == record ? value : remappingFunction.apply(read(record), value);
+        return store(key, record, newValue);
+    }
+
+    @Override
+    public synchronized int size() {
+        final long now = clock.millis();
+        index.values().removeIf(record -> now >= record.expiresAt);
+        return index.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        index.clear();
+        log.clear();
+        tail = head;
+    }
+
+    @Override
+    @Nonnull
+    public Set<Map.Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    /**
+     * @return the number of bytes used in the buffer, including the ones of removed entries not yet overwritten
+     */
+    synchronized long getUsedBytes() {
+        return head - tail;
+    }
+
+    private Record liveRecord(Object key) {
+        final Record record = index.get(key);
+        if (null == record) {
+            return null;
+        }
+        if (clock.millis() >= record.expiresAt) {
+            index.remove(key);
+            return null;
+        }
+        return record;
+    }
+
+    /**
+     * Stores the value computed for the key, or removes the entry when the value is {@code null}.
+     * An updated entry keeps the expiry time of its current record.
+     */
+    private V store(K key, Record current, V value) {
+        if (null == value) {
+            if (null != current) {
+                index.remove(key);
+            }
+            return null;
+        }
+        append(key, encode(value), null == current ? clock.millis() + timeToLiveMillis : current.expiresAt);
+        return value;
+    }
+
+    private void append(K key, byte[] bytes, long expiresAt) {
+        if (bytes.length > capacity) {
+            throw new IllegalArgumentException(
+                    "Value of " + bytes.length + " bytes exceeds the cache capacity of " + capacity + " bytes");
+        }
+        while (capacity - (head - tail) < bytes.length || (index.size() >= maximumSize && !index.containsKey(key))) {
+            evictOldest();
+        }
+        final int position = (int) (head % capacity);
+        final int firstPart = Math.min(bytes.length, capacity - position);
+        buffer.position(position);
+        buffer.put(bytes, 0, firstPart);
+        if (firstPart < bytes.length) {
+            buffer.position(0);
+            buffer.put(bytes, firstPart, bytes.length - firstPart);
+        }
+        final Record record = new Record(key, head, bytes.length, expiresAt);
+        head += bytes.length;
+        log.addLast(record);
+        index.put(key, record);
+    }
+
+    private void evictOldest() {
+        final Record oldest = log.pollFirst();
+        if (index.get(oldest.key) == oldest) {
+            index.remove(oldest.key);
+        }
+        tail = log.isEmpty() ? head : log.peekFirst().position;
+    }
+
+    private V read(Record record) {
+        final byte[] bytes = new byte[record.length];
+        final int position = (int) (record.position % capacity);
+        final int firstPart = Math.min(bytes.length, capacity - position);
+        buffer.position(position);
+        buffer.get(bytes, 0, firstPart);
+        if (firstPart < bytes.length) {
+            buffer.position(0);
+            buffer.get(bytes, firstPart, bytes.length - firstPart);
+        }
+        return decode(bytes);
+    }
+
+    private static byte[] encode(Object value) {
+        Objects.requireNonNull(value, "value");
+        if (value instanceof String) {
+            final byte[] stringBytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            final byte[] bytes = new byte[stringBytes.length + 1];
+            bytes[0] = STRING_VALUE;
+            System.arraycopy(stringBytes, 0, bytes, 1, stringBytes.length);
+            return bytes;
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(SERIALIZED_VALUE);
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(value);
+        } catch (NotSerializableException e) {
+            throw new IllegalArgumentException("Value of type " + value.getClass().getName() + " is not serializable", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private V decode(byte[] bytes) {
+        if (STRING_VALUE == bytes[0]) {
+            return (V) new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+        }
+        try (ObjectInputStream objectInputStream =
+                     new ObjectInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            return (V) objectInputStream.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot deserialize cached value", e);
+        }
+    }
+
+    private static final class Record {
+
+        private final Object key;
+
+        private final long position;
+
+        private final int length;
+
+        private long expiresAt;
+
+        private Record(Object key, long position, int length, long expiresAt) {
+            this.key = key;
+            this.position = position;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Entries of the map: iterating takes a snapshot of the keys and reads the values which are still present.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        @Nonnull
+        public Iterator<Map.Entry<K, V>> iterator() {
+            final List<K> keys;
+            synchronized (OffHeapConcurrentMap.this) {
+                keys = new ArrayList<>(index.keySet());
+            }
+            return new EntryIterator(keys.iterator());
+        }
+
+        @Override
+        public int size() {
+            return OffHeapConcurrentMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            OffHeapConcurrentMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private final Iterator<K> keys;
+
+        private Map.Entry<K, V> next;
+
+        private K lastKey;
+
+        private EntryIterator(Iterator<K> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == next && keys.hasNext()) {
+                final K key = keys.next();
+                final V value = get(key);
+                if (null != value) {
+                    next = new OffHeapEntry(key, value);
+                }
+            }
+            return null != next;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Map.Entry<K, V> entry = next;
+            next = null;
+            lastKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (null == lastKey) {
+                throw new IllegalStateException();
+            }
+            OffHeapConcurrentMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    private final class OffHeapEntry extends SimpleEntry<K, V> {
+
+        private OffHeapEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
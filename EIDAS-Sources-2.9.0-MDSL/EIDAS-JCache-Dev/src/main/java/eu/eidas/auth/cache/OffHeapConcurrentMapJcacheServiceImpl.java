@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.cache;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of the cache provider which keeps the cached values outside of the Java heap, in a buffer of
+ * {@link #getMaximumBytes()} bytes, so that a large number of entries does not weigh on the garbage collector.
+ * <p>
+ * It is configured as {@link ConcurrentMapJcacheServiceDefaultImpl}, with the same expiry policies and time to live,
+ * and evicts the oldest written entries when the buffer or the maximum number of entries is full. As there is no
+ * clustering, it is meant for single node deployments.
+ *
+ * @see OffHeapConcurrentMap
+ */
+public class OffHeapConcurrentMapJcacheServiceImpl extends ConcurrentMapJcacheServiceDefaultImpl {
+
+    private static final long DEFAULT_MAXIMUM_BYTES = 16L * 1024L * 1024L;
+
+    private Long maximumBytes = DEFAULT_MAXIMUM_BYTES;
+
+    @Override
+    protected ConcurrentMap buildMapCache() {
+        return new OffHeapConcurrentMap<>(Math.toIntExact(getMaximumBytes()), getMaximumSize(), getExpiryPolicy(),
+                getTimeToLive());
+    }
+
+    /**
+     * Gets the size of the buffer holding the cached values.
+     *
+     * @return the size of the buffer in bytes
+     */
+    public Long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    /**
+     * Sets the size of the buffer holding the cached values, at most {@link Integer#MAX_VALUE}.
+     *
+     * @param maximumBytes the size of the buffer in bytes
+     */
+    public void setMaximumBytes(Long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+    }
+
+}
@@ -22,6 +22,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import javax.cache.Cache;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Test class for {@link ConcurrentMapJcacheServiceDefaultImpl}
@@ -74,4 +75,71 @@ public class ConcurrentMapJcacheServiceDefaultImplTest {
 
         Assert.assertEquals(expectedMaximumSize, actualMaximumSize);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link ConcurrentMapJcacheServiceDefaultImpl#getConfiguredCache()}
+     * and {@link ConcurrentMapJcacheServiceDefaultImpl#getConfiguredMapCache()}
+     * when called more than once
+     * <p>
+     * Must return the same cache, backed by the same map.
+     */
+    @Test
+    public void getConfiguredCacheReturnsSameInstance() {
+        final ConcurrentMapJcacheServiceDefaultImpl concurrentMapJcacheServiceDefault = new ConcurrentMapJcacheServiceDefaultImpl();
+        final ConcurrentMap configuredMapCache = concurrentMapJcacheServiceDefault.getConfiguredMapCache();
+        final Cache configuredCache = concurrentMapJcacheServiceDefault.getConfiguredCache();
+
+        Assert.assertSame(configuredMapCache, concurrentMapJcacheServiceDefault.getConfiguredMapCache());
+        Assert.assertSame(configuredCache, concurrentMapJcacheServiceDefault.getConfiguredCache());
+
+        configuredCache.put("key", "value");
+        Assert.assertEquals("value", configuredMapCache.get("key"));
+    }
+
+    /**
+     * Test method for {@link ConcurrentMapJcacheServiceDefaultImpl#getExpiryPolicy()}
+     * and {@link ConcurrentMapJcacheServiceDefaultImpl#getTimeToLive()}
+     * when they are not set
+     * <p>
+     * Must return the expiry after access of 1800 seconds.
+     */
+    @Test
+    public void getExpiryPolicyDefault() {
+        final ConcurrentMapJcacheServiceDefaultImpl concurrentMapJcacheServiceDefault = new ConcurrentMapJcacheServiceDefaultImpl();
+
+        Assert.assertEquals(ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy.ACCESSED, concurrentMapJcacheServiceDefault.getExpiryPolicy());
+        Assert.assertEquals(Long.valueOf(1800L), concurrentMapJcacheServiceDefault.getTimeToLive());
+    }
+
+    /**
+     * Test method for {@link ConcurrentMapJcacheServiceDefaultImpl#setExpiryPolicy(ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy)}
+     * and {@link ConcurrentMapJcacheServiceDefaultImpl#setTimeToLive(Long)}
+     * <p>
+     * Must override the defaults.
+     */
+    @Test
+    public void setExpiryPolicy() {
+        final ConcurrentMapJcacheServiceDefaultImpl concurrentMapJcacheServiceDefault = new ConcurrentMapJcacheServiceDefaultImpl();
+        concurrentMapJcacheServiceDefault.setExpiryPolicy(ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy.CREATED);
+        concurrentMapJcacheServiceDefault.setTimeToLive(10800L);
+
+        Assert.assertEquals(ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy.CREATED, concurrentMapJcacheServiceDefault.getExpiryPolicy());
+        Assert.assertEquals(Long.valueOf(10800L), concurrentMapJcacheServiceDefault.getTimeToLive());
+    }
+
+    /**
+     * Test method for {@link ConcurrentMapJcacheServiceDefaultImpl#setExpireAfterAccess(Long)}
+     * when the expiry policy was set to {@link ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy#CREATED}
+     * <p>
+     * Must switch to the expiry after access.
+     */
+    @Test
+    public void setExpireAfterAccessOverridesExpiryPolicy() {
+        final ConcurrentMapJcacheServiceDefaultImpl concurrentMapJcacheServiceDefault = new ConcurrentMapJcacheServiceDefaultImpl();
+        concurrentMapJcacheServiceDefault.setExpiryPolicy(ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy.CREATED);
+        concurrentMapJcacheServiceDefault.setExpireAfterAccess(2000L);
+
+        Assert.assertEquals(ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy.ACCESSED, concurrentMapJcacheServiceDefault.getExpiryPolicy());
+        Assert.assertEquals(Long.valueOf(2000L), concurrentMapJcacheServiceDefault.getTimeToLive());
+    }
+}
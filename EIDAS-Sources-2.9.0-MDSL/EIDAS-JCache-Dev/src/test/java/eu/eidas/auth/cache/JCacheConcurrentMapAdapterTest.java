@@ -23,15 +23,27 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import javax.cache.Cache;
 import javax.cache.configuration.CacheEntryListenerConfiguration;
 import javax.cache.configuration.Configuration;
 import javax.cache.integration.CompletionListener;
 import javax.cache.integration.CompletionListenerFuture;
 import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Test class for {@link JCacheConcurrentMapAdapter} class.
@@ -76,17 +88,20 @@ public class JCacheConcurrentMapAdapterTest {
     /**
      * Test method for
      * {@link JCacheConcurrentMapAdapter#getAll(Set)}
-     * for all cases.
+     * when the map contains one of the keys.
      * <p/>
-     * Must fail and throw {@link UnsupportedOperationException}.
+     * Must return the values of the keys found only.
      */
     @Test
     public void getAll() {
-        thrown.expect(UnsupportedOperationException.class);
-
         final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
+        jCacheConcurrentMapAdapter.put(KEY, VALUE);
         final Set<String> keySet = createKeySet();
-        jCacheConcurrentMapAdapter.getAll(keySet);
+        keySet.add("absentKey");
+
+        final Map<String, String> actualValues = jCacheConcurrentMapAdapter.getAll(keySet);
+
+        Assert.assertEquals(Collections.singletonMap(KEY, VALUE), actualValues);
     }
 
     /**
@@ -251,9 +266,46 @@ public class JCacheConcurrentMapAdapterTest {
         boolean containsKeyBeforeRemove = jCacheConcurrentMapAdapter.containsKey(KEY);
         Assert.assertTrue(containsKeyBeforeRemove);
 
-        jCacheConcurrentMapAdapter.remove(KEY);
+        Assert.assertTrue(jCacheConcurrentMapAdapter.remove(KEY));
         boolean containsKeyAfterRemove = jCacheConcurrentMapAdapter.containsKey(KEY);
         Assert.assertFalse(containsKeyAfterRemove);
+        Assert.assertFalse(jCacheConcurrentMapAdapter.remove(KEY));
+    }
+
+    /**
+     * Test method for
+     * {@link JCacheConcurrentMapAdapter#putIfAbsent(Object, Object)}
+     * when several threads put the same key at the same time.
+     * <p/>
+     * Must succeed for one thread only.
+     */
+    @Test
+    public void putIfAbsentConcurrently() throws Exception {
+        final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
+        final int threads = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < 100; i++) {
+                final String key = KEY + i;
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<Boolean>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executorService.submit(() -> {
+                        start.await();
+                        return jCacheConcurrentMapAdapter.putIfAbsent(key, VALUE);
+                    }));
+                }
+                start.countDown();
+
+                int successes = 0;
+                for (Future<Boolean> future : futures) {
+                    successes += future.get() ? 1 : 0;
+                }
+                Assert.assertEquals(1, successes);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
     }
 
     /**
@@ -356,6 +408,22 @@ public class JCacheConcurrentMapAdapterTest {
     }
 
 
+    /**
+     * Test method for
+     * {@link JCacheConcurrentMapAdapter#replace(Object, Object, Object)}
+     * when the map is empty.
+     * <p/>
+     * Must succeed.
+     */
+    @Test
+    public void replaceWith2ValuesWhenMapIsEmpty() {
+        final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
+        final boolean actualReplaced = jCacheConcurrentMapAdapter.replace(KEY, VALUE, OTHER_VALUE);
+
+        Assert.assertFalse(actualReplaced);
+        Assert.assertNull(jCacheConcurrentMapAdapter.get(KEY));
+    }
+
     /**
      * Test method for
      * {@link JCacheConcurrentMapAdapter#replace(Object, Object, Object)}
@@ -475,31 +543,89 @@ public class JCacheConcurrentMapAdapterTest {
     /**
      * Test method for
      * {@link JCacheConcurrentMapAdapter#invoke(Object, EntryProcessor, Object...)}
-     * for all cases.
+     * when the entry processor updates the value.
      * <p/>
-     * Must fail and throw {@link UnsupportedOperationException}.
+     * Must store the new value and return the result of the entry processor.
      */
     @Test
     public void invoke() {
-        thrown.expect(UnsupportedOperationException.class);
+        final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
+        jCacheConcurrentMapAdapter.put(KEY, VALUE);
+
+        final String actualResult = jCacheConcurrentMapAdapter.invoke(KEY, (entry, arguments) -> {
+            final String oldValue = entry.getValue();
+            entry.setValue(oldValue + arguments[0]);
+            return oldValue;
+        }, "_suffix");
+
+        Assert.assertEquals(VALUE, actualResult);
+        Assert.assertEquals(VALUE + "_suffix", jCacheConcurrentMapAdapter.get(KEY));
+    }
 
+    /**
+     * Test method for
+     * {@link JCacheConcurrentMapAdapter#invoke(Object, EntryProcessor, Object...)}
+     * when the entry processor removes the entry.
+     * <p/>
+     * Must remove the entry.
+     */
+    @Test
+    public void invokeRemove() {
         final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
-        jCacheConcurrentMapAdapter.invoke(null, null, null);
+        jCacheConcurrentMapAdapter.put(KEY, VALUE);
+
+        final Boolean actualResult = jCacheConcurrentMapAdapter.invoke(KEY, (entry, arguments) -> {
+            entry.remove();
+            return entry.exists();
+        });
+
+        Assert.assertFalse(actualResult);
+        Assert.assertFalse(jCacheConcurrentMapAdapter.containsKey(KEY));
+    }
+
+    /**
+     * Test method for
+     * {@link JCacheConcurrentMapAdapter#invoke(Object, EntryProcessor, Object...)}
+     * when the entry processor throws an exception.
+     * <p/>
+     * Must fail and throw {@link EntryProcessorException}, leaving the entry unchanged.
+     */
+    @Test
+    public void invokeWhenEntryProcessorFails() {
+        final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
+        jCacheConcurrentMapAdapter.put(KEY, VALUE);
+
+        try {
+            jCacheConcurrentMapAdapter.invoke(KEY, (entry, arguments) -> {
+                entry.setValue(OTHER_VALUE);
+                throw new IllegalStateException();
+            });
+            Assert.fail("EntryProcessorException expected");
+        } catch (EntryProcessorException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(VALUE, jCacheConcurrentMapAdapter.get(KEY));
     }
 
     /**
      * Test method for
      * {@link JCacheConcurrentMapAdapter#invokeAll(Set, EntryProcessor, Object...)}
-     * for all cases.
+     * when the map contains one of the keys.
      * <p/>
-     * Must fail and throw {@link UnsupportedOperationException}.
+     * Must return the non-null results of the entry processor.
      */
     @Test
     public void invokeAll() {
-        thrown.expect(UnsupportedOperationException.class);
-
         final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
-        jCacheConcurrentMapAdapter.invokeAll(null, null, null);
+        jCacheConcurrentMapAdapter.put(KEY, VALUE);
+        final Set<String> keySet = createKeySet();
+        keySet.add("absentKey");
+
+        final Map<String, EntryProcessorResult<String>> actualResults =
+                jCacheConcurrentMapAdapter.invokeAll(keySet, (entry, arguments) -> entry.getValue());
+
+        Assert.assertEquals(Collections.singleton(KEY), actualResults.keySet());
+        Assert.assertEquals(VALUE, actualResults.get(KEY).get());
     }
 
     /**
@@ -611,16 +737,24 @@ public class JCacheConcurrentMapAdapterTest {
     /**
      * Test method for
      * {@link JCacheConcurrentMapAdapter#iterator()}
-     * for all cases.
+     * when the map has one valid key,value pair.
      * <p/>
-     * Must fail and throw {@link UnsupportedOperationException}.
+     * Must iterate over the entry and remove it.
      */
     @Test
     public void iterator() {
-        thrown.expect(UnsupportedOperationException.class);
-
         final JCacheConcurrentMapAdapter<String, String> jCacheConcurrentMapAdapter = createJCacheConcurrentMapAdapter();
-        jCacheConcurrentMapAdapter.iterator();
+        jCacheConcurrentMapAdapter.put(KEY, VALUE);
+
+        final Iterator<Cache.Entry<String, String>> iterator = jCacheConcurrentMapAdapter.iterator();
+        Assert.assertTrue(iterator.hasNext());
+        final Cache.Entry<String, String> entry = iterator.next();
+        Assert.assertEquals(KEY, entry.getKey());
+        Assert.assertEquals(VALUE, entry.getValue());
+        iterator.remove();
+
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertFalse(jCacheConcurrentMapAdapter.containsKey(KEY));
     }
 
     /**
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.cache;
+
+import eu.eidas.auth.cache.ConcurrentMapJcacheServiceDefaultImpl.ExpiryPolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.cache.Cache;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Test class for {@link OffHeapConcurrentMap}
+ */
+public class OffHeapConcurrentMapTest {
+
+    private final TestClock clock = new TestClock();
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#put(Object, Object)} and {@link OffHeapConcurrentMap#get(Object)}
+     * <p>
+     * Must return the String and serializable values put.
+     */
+    @Test
+    public void putAndGet() {
+        final OffHeapConcurrentMap<String, Object> map = newMap(1024, 10, ExpiryPolicy.CREATED);
+        final ArrayList<String> serializableValue = new ArrayList<>(Arrays.asList("a", "b"));
+
+        Assert.assertNull(map.put("string", "välue"));
+        Assert.assertNull(map.put("empty", ""));
+        Assert.assertNull(map.put("serializable", serializableValue));
+        Assert.assertEquals("välue", map.put("string", "other"));
+
+        Assert.assertEquals("other", map.get("string"));
+        Assert.assertEquals("", map.get("empty"));
+        Assert.assertEquals(serializableValue, map.get("serializable"));
+        Assert.assertNull(map.get("missing"));
+        Assert.assertEquals(3, map.size());
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#put(Object, Object)}
+     * when the buffer is full
+     * <p>
+     * Must evict the oldest written entries and keep reading the values wrapped around the end of the buffer.
+     */
+    @Test
+    public void putEvictsOldestWhenBufferFull() {
+        final OffHeapConcurrentMap<String, String> map = newMap(32, 10, ExpiryPolicy.CREATED);
+
+        map.put("1", "0123456789");
+        map.put("2", "0123456789");
+        map.put("3", "0123456789");
+
+        Assert.assertNull(map.get("1"));
+        Assert.assertEquals("0123456789", map.get("2"));
+        Assert.assertEquals("0123456789", map.get("3"));
+        Assert.assertTrue(map.getUsedBytes() <= 32);
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#put(Object, Object)}
+     * when the maximum number of entries is reached
+     * <p>
+     * Must evict the oldest written entry.
+     */
+    @Test
+    public void putEvictsOldestWhenMaximumSizeReached() {
+        final OffHeapConcurrentMap<String, String> map = newMap(1024, 2, ExpiryPolicy.CREATED);
+
+        map.put("1", "value1");
+        map.put("2", "value2");
+        map.put("2", "value2bis");
+        map.put("3", "value3");
+
+        Assert.assertFalse(map.containsKey("1"));
+        Assert.assertEquals("value2bis", map.get("2"));
+        Assert.assertEquals("value3", map.get("3"));
+        Assert.assertEquals(2, map.size());
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#put(Object, Object)}
+     * when the value is larger than the buffer
+     * <p>
+     * Must fail.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void putValueLargerThanBuffer() {
+        newMap(8, 10, ExpiryPolicy.CREATED).put("key", "0123456789");
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#get(Object)}
+     * when the expiry policy is {@link ExpiryPolicy#CREATED}
+     * <p>
+     * Must expire the entry after the time to live counted from its creation, even if it was read or updated.
+     */
+    @Test
+    public void getExpiredAfterCreation() {
+        final OffHeapConcurrentMap<String, String> map = newMap(1024, 10, ExpiryPolicy.CREATED);
+
+        map.put("key", "value");
+        clock.advanceSeconds(50);
+        Assert.assertEquals("value", map.get("key"));
+        Assert.assertEquals("value", map.replace("key", "other"));
+        clock.advanceSeconds(50);
+
+        Assert.assertNull(map.get("key"));
+        Assert.assertEquals(0, map.size());
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#get(Object)}
+     * when the expiry policy is {@link ExpiryPolicy#ACCESSED}
+     * <p>
+     * Must expire the entry after the time to live counted from its last read.
+     */
+    @Test
+    public void getExpiredAfterAccess() {
+        final OffHeapConcurrentMap<String, String> map = newMap(1024, 10, ExpiryPolicy.ACCESSED);
+
+        map.put("key", "value");
+        clock.advanceSeconds(50);
+        Assert.assertEquals("value", map.get("key"));
+        clock.advanceSeconds(50);
+        Assert.assertEquals("value", map.get("key"));
+        clock.advanceSeconds(100);
+
+        Assert.assertNull(map.get("key"));
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#putIfAbsent(Object, Object)},
+     * {@link OffHeapConcurrentMap#replace(Object, Object, Object)} and {@link OffHeapConcurrentMap#remove(Object, Object)}
+     * <p>
+     * Must apply the change only when the current value matches.
+     */
+    @Test
+    public void conditionalOperations() {
+        final OffHeapConcurrentMap<String, String> map = newMap(1024, 10, ExpiryPolicy.CREATED);
+
+        Assert.assertNull(map.putIfAbsent("key", "value"));
+        Assert.assertEquals("value", map.putIfAbsent("key", "other"));
+        Assert.assertFalse(map.replace("key", "other", "value2"));
+        Assert.assertTrue(map.replace("key", "value", "value2"));
+        Assert.assertFalse(map.remove("key", "value"));
+        Assert.assertTrue(map.remove("key", "value2"));
+        Assert.assertNull(map.replace("key", "value3"));
+        Assert.assertFalse(map.containsKey("key"));
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#compute(Object, BiFunction)},
+     * {@link OffHeapConcurrentMap#computeIfAbsent(Object, Function)},
+     * {@link OffHeapConcurrentMap#computeIfPresent(Object, BiFunction)} and
+     * {@link OffHeapConcurrentMap#merge(Object, Object, BiFunction)}
+     * <p>
+     * Must store the computed value, remove the entry when it is null, and keep the expiry time of an updated entry.
+     */
+    @Test
+    public void computeOperations() {
+        final OffHeapConcurrentMap<String, String> map = newMap(1024, 10, ExpiryPolicy.CREATED);
+
+        Assert.assertEquals("value", map.computeIfAbsent("key", key -> "value"));
+        Assert.assertEquals("value", map.computeIfAbsent("key", key -> "other"));
+        Assert.assertNull(map.computeIfPresent("missing", (key, value) -> "other"));
+        Assert.assertEquals("value2", map.computeIfPresent("key", (key, value) -> value + "2"));
+        Assert.assertEquals("value2-merged", map.merge("key", "-merged", String::concat));
+        Assert.assertEquals("new", map.merge("merged", "new", String::concat));
+        clock.advanceSeconds(50);
+        Assert.assertEquals("value3", map.compute("key", (key, value) -> "value3"));
+        Assert.assertNull(map.compute("merged", (key, value) -> null));
+        Assert.assertFalse(map.containsKey("merged"));
+        clock.advanceSeconds(10);
+
+        Assert.assertNull(map.get("key"));
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#compute(Object, BiFunction)}
+     * when several threads update the same key
+     * <p>
+     * Must run the remapping function exactly once per call.
+     */
+    @Test
+    public void computeConcurrently() throws InterruptedException {
+        final OffHeapConcurrentMap<String, Integer> map = newMap(1024, 10, ExpiryPolicy.CREATED);
+        final AtomicInteger invocations = new AtomicInteger();
+        final int threads = 8;
+        final int increments = 1000;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        for (int i = 0; i < threads; i++) {
+            executorService.execute(() -> {
+                for (int j = 0; j < increments; j++) {
+                    map.compute("counter", (key, value) -> {
+                        invocations.incrementAndGet();
+                        return null == value ? 1 : value + 1;
+                    });
+                }
+            });
+        }
+        executorService.shutdown();
+        Assert.assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        Assert.assertEquals(Integer.valueOf(threads * increments), map.get("counter"));
+        Assert.assertEquals(threads * increments, invocations.get());
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#entrySet()}
+     * <p>
+     * Must iterate on the entries and remove the current one.
+     */
+    @Test
+    public void entrySetIterator() {
+        final OffHeapConcurrentMap<String, String> map = newMap(1024, 10, ExpiryPolicy.CREATED);
+        map.put("1", "value1");
+        map.put("2", "value2");
+
+        final Iterator<Map.Entry<String, String>> iterator = map.entrySet().iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            final Map.Entry<String, String> entry = iterator.next();
+            Assert.assertEquals("value" + entry.getKey(), entry.getValue());
+            iterator.remove();
+            count++;
+        }
+
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMap#clear()}
+     * <p>
+     * Must remove the entries and release the buffer.
+     */
+    @Test
+    public void clear() {
+        final OffHeapConcurrentMap<String, String> map = newMap(1024, 10, ExpiryPolicy.CREATED);
+        map.put("key", "value");
+
+        map.clear();
+
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(0, map.getUsedBytes());
+    }
+
+    /**
+     * Test method for {@link OffHeapConcurrentMapJcacheServiceImpl#getConfiguredCache()}
+     * <p>
+     * Must return a cache backed by the off-heap map, whose entry processors run against it.
+     */
+    @Test
+    public void getConfiguredCache() {
+        final OffHeapConcurrentMapJcacheServiceImpl service = new OffHeapConcurrentMapJcacheServiceImpl();
+        service.setExpiryPolicy(ExpiryPolicy.CREATED);
+        service.setTimeToLive(10800L);
+        service.setMaximumBytes(4096L);
+
+        final Cache<String, Boolean> cache = service.getConfiguredCache();
+        cache.put("key", Boolean.TRUE);
+        final Boolean previous = cache.invoke("key", (entry, arguments) -> {
+            final Boolean value = entry.getValue();
+            entry.setValue(Boolean.FALSE);
+            return value;
+        });
+
+        Assert.assertTrue(service.getConfiguredMapCache() instanceof OffHeapConcurrentMap);
+        Assert.assertEquals(Boolean.TRUE, previous);
+        Assert.assertEquals(Boolean.FALSE, cache.get("key"));
+    }
+
+    private <V> OffHeapConcurrentMap<String, V> newMap(int maximumBytes, long maximumSize, ExpiryPolicy expiryPolicy) {
+        return new OffHeapConcurrentMap<>(maximumBytes, maximumSize, expiryPolicy, 60L, clock);
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        private void advanceSeconds(long seconds) {
+            instant = instant.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -21,6 +21,8 @@ import eu.eidas.auth.cache.IgniteInstanceInitializerNode;
 import eu.eidas.auth.commons.exceptions.InvalidParameterEIDASException;
 import eu.eidas.auth.engine.metadata.EidasMetadataParametersI;
 import org.apache.ignite.Ignite;
+import org.apache.ignite.cache.eviction.lru.LruEvictionPolicyFactory;
+import org.apache.ignite.configuration.NearCacheConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,26 +30,58 @@ import javax.cache.Cache;
 
 /**
  * implements a caching service using ignite
+ * <p>
+ * The cache handle is resolved once and reused for every access. On a client node, a near cache of at most
+ * {@link #setNearCacheMaxSize(int) nearCacheMaxSize} entries can be enabled, so that the metadata read on every message
+ * are served from local memory while the updates stay clustered. On a server node, a near cache can only be enabled
+ * statically by the {@code nearConfiguration} of the cache in the Ignite configuration.
  */
 public class DistributedMetadataCaching extends AbstractMetadataCaching {
 
     private static final Logger LOG = LoggerFactory.getLogger(DistributedMetadataCaching.class.getName());
 
-    protected Cache<String, EidasMetadataParametersI> cache;
+    protected volatile Cache<String, EidasMetadataParametersI> cache;
 
     protected String cacheName;
 
     protected IgniteInstanceInitializerNode igniteInstanceInitializer;
 
+    /**
+     * Maximum number of entries of the near cache of a client node, 0 (the default) for no near cache.
+     */
+    protected int nearCacheMaxSize;
+
     @Override
     protected Cache<String, EidasMetadataParametersI> getCache() {
+        Cache<String, EidasMetadataParametersI> resolvedCache = cache;
+        if (null == resolvedCache) {
+            synchronized (this) {
+                resolvedCache = cache;
+                if (null == resolvedCache) {
+                    resolvedCache = resolveCache();
+                    cache = resolvedCache;
+                }
+            }
+        }
+        return resolvedCache;
+    }
+
+    private Cache<String, EidasMetadataParametersI> resolveCache() {
         if (getCacheName() == null) {
             LOG.debug("Cache Name is null");
             throw new InvalidParameterEIDASException("Distributed Cache Configuration mismatch");
         }
 
         final Ignite instance = igniteInstanceInitializer.getInstance();
-        Cache<String, EidasMetadataParametersI> cache = instance.cache(cacheName);
+        final Cache<String, EidasMetadataParametersI> cache;
+        if (nearCacheMaxSize > 0 && instance.cluster().localNode().isClient()) {
+            final NearCacheConfiguration<String, EidasMetadataParametersI> nearCacheConfiguration =
+                    new NearCacheConfiguration<String, EidasMetadataParametersI>()
+                            .setNearEvictionPolicyFactory(new LruEvictionPolicyFactory<>(nearCacheMaxSize));
+            cache = instance.getOrCreateNearCache(cacheName, nearCacheConfiguration);
+        } else {
+            cache = instance.cache(cacheName);
+        }
 
         if (null == cache) {
             LOG.error("Cache \"{}\" is null: Distributed Cache Configuration mismatch", getCacheName());
@@ -69,4 +103,12 @@ public class DistributedMetadataCaching extends AbstractMetadataCaching {
         this.igniteInstanceInitializer = igniteInstanceInitializer;
     }
 
+    public int getNearCacheMaxSize() {
+        return nearCacheMaxSize;
+    }
+
+    public void setNearCacheMaxSize(int nearCacheMaxSize) {
+        this.nearCacheMaxSize = nearCacheMaxSize;
+    }
+
 }
@@ -23,7 +23,11 @@ import eu.eidas.auth.cache.IgniteInstanceInitializerNode;
 import eu.eidas.auth.commons.exceptions.InvalidParameterEIDASException;
 import eu.eidas.auth.engine.metadata.EidasMetadataParametersI;
 import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteCluster;
 import org.apache.ignite.Ignition;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.configuration.NearCacheConfiguration;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -36,8 +40,13 @@ import org.slf4j.LoggerFactory;
 import javax.cache.Cache;
 import java.io.IOException;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -137,4 +146,71 @@ public class DistributedMetadataCachingTest {
         distributedMetadataCaching.getCache();
     }
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link DistributedMetadataCaching#getCache()}
+     * when the cache is accessed several times
+     * <p>
+     * Must resolve the cache handle once.
+     */
+    @Test
+    public void getCacheResolvedOnce() {
+        IgniteInstanceInitializerNode mockedIgniteInstanceInitializerNode = mock(IgniteInstanceInitializerNode.class);
+        Ignite mockedIgnite = mock(Ignite.class);
+        IgniteCache<Object, Object> mockedCache = mock(IgniteCache.class);
+        when(mockedIgniteInstanceInitializerNode.getInstance()).thenReturn(mockedIgnite);
+        when(mockedIgnite.cache(DEMO_CACHE_NAME)).thenReturn(mockedCache);
+
+        DistributedMetadataCaching distributedMetadataCaching = new DistributedMetadataCaching();
+        distributedMetadataCaching.setCacheName(DEMO_CACHE_NAME);
+        distributedMetadataCaching.setIgniteInstanceInitializer(mockedIgniteInstanceInitializerNode);
+
+        Assert.assertSame(mockedCache, distributedMetadataCaching.getCache());
+        Assert.assertSame(mockedCache, distributedMetadataCaching.getCache());
+        verify(mockedIgnite, times(1)).cache(DEMO_CACHE_NAME);
+    }
+
+    /**
+     * Test method for {@link DistributedMetadataCaching#getCache()}
+     * when a near cache is configured on a client node
+     * <p>
+     * Must return the near cache.
+     */
+    @Test
+    public void getCacheWithNearCacheOnClientNode() {
+        IgniteInstanceInitializerNode mockedIgniteInstanceInitializerNode = mock(IgniteInstanceInitializerNode.class);
+        Ignite mockedIgnite = mock(Ignite.class);
+        IgniteCluster mockedIgniteCluster = mock(IgniteCluster.class);
+        ClusterNode mockedClusterNode = mock(ClusterNode.class);
+        IgniteCache<Object, Object> mockedNearCache = mock(IgniteCache.class);
+        when(mockedIgniteInstanceInitializerNode.getInstance()).thenReturn(mockedIgnite);
+        when(mockedIgnite.cluster()).thenReturn(mockedIgniteCluster);
+        when(mockedIgniteCluster.localNode()).thenReturn(mockedClusterNode);
+        when(mockedClusterNode.isClient()).thenReturn(true);
+        when(mockedIgnite.getOrCreateNearCache(eq(DEMO_CACHE_NAME), any(NearCacheConfiguration.class)))
+                .thenReturn(mockedNearCache);
+
+        DistributedMetadataCaching distributedMetadataCaching = new DistributedMetadataCaching();
+        distributedMetadataCaching.setCacheName(DEMO_CACHE_NAME);
+        distributedMetadataCaching.setNearCacheMaxSize(100);
+        distributedMetadataCaching.setIgniteInstanceInitializer(mockedIgniteInstanceInitializerNode);
+
+        Assert.assertSame(mockedNearCache, distributedMetadataCaching.getCache());
+        verify(mockedIgnite, never()).cache(anyString());
+    }
+
+    /**
+     * Test method for {@link DistributedMetadataCaching#getCache()}
+     * when a near cache is configured on a server node
+     * <p>
+     * Must return the cache configured on the node.
+     */
+    @Test
+    public void getCacheWithNearCacheOnServerNode() {
+        DistributedMetadataCaching distributedMetadataCaching = new DistributedMetadataCaching();
+        distributedMetadataCaching.setCacheName(DEMO_CACHE_NAME);
+        distributedMetadataCaching.setNearCacheMaxSize(100);
+        distributedMetadataCaching.setIgniteInstanceInitializer(igniteInstanceInitializerNode);
+
+        Assert.assertNotNull(distributedMetadataCaching.getCache());
+    }
+}
@@ -21,11 +21,11 @@ package eu.eidas.logging.integrity;
 import eu.eidas.auth.commons.EidasErrorKey;
 import eu.eidas.auth.commons.exceptions.InvalidParameterEIDASException;
 
-import javax.xml.bind.DatatypeConverter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -35,6 +35,11 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * This class makes only sense if used by the {@link HashPatternLayoutEncoder}.
  * To avoid concurrency issue, while different log event are handled by different threads, all writing performed on
  * the internal output stream MUST BE synchronized.
+ * <p>
+ * The hash of each line is chained to the hash of the previous one, so the lines must be written to the log file in
+ * the order they are given to this generator. The appenders using the {@link HashPatternLayoutEncoder} are therefore
+ * wrapped in an {@link ch.qos.logback.classic.AsyncAppender}: its single worker thread encodes and writes the events
+ * taken from a bounded queue, so the logging threads neither wait for the digest nor interleave the chain.
  */
 public final class HashAndCounterGenerator {
 
@@ -51,7 +56,7 @@ public final class HashAndCounterGenerator {
      * the used output stream MUST BE synchronized.
      */
     private final ByteArrayOutputStream outputStream;
-    private AtomicLong counter;
+    private final AtomicLong counter;
 
     /**
      * Base constructor without initialisation salting.
@@ -93,9 +98,18 @@ public final class HashAndCounterGenerator {
     public final byte[] getModifiedLoggedBytes(byte[] originalLoggedBytes) {
         synchronized (outputStream) {
             try {
-                for (byte originalByte : originalLoggedBytes) {
-                    write(originalByte);
+                int segmentStart = 0;
+                for (int index = 0; index < originalLoggedBytes.length; index++) {
+                    final byte originalByte = originalLoggedBytes[index];
+                    if (originalByte == NEWLINE || originalByte == CARRIAGE) {
+                        writeAndUpdateMessageDigest(originalLoggedBytes, segmentStart, index - segmentStart);
+                        segmentStart = index + 1;
+                        if (originalByte == NEWLINE) {
+                            writeHash();
+                        }
+                    }
                 }
+                writeAndUpdateMessageDigest(originalLoggedBytes, segmentStart, originalLoggedBytes.length - segmentStart);
                 outputStream.flush();
                 return outputStream.toByteArray();
             } catch (IOException exception) {
@@ -110,22 +124,29 @@ public final class HashAndCounterGenerator {
      * Adds the following information to the log line : #xx# [hashValue]
      * where xx is the counter of the log line and hashValue is the SHA256 of the log line content
      *
-     * @param byteToWrite bytes to write
      * @throws IOException when writing to the internally used output stream fails
      */
-    private void write(int byteToWrite) throws IOException {
-        // New line
-        if (byteToWrite == NEWLINE) {
-            // increment the counter and add it to the hash
-            byte[] base64HashBytes = computeHashBeforeLog();
-            outputStream.write(BEGIN_SEPARATOR);
-            outputStream.write(base64HashBytes);
-            outputStream.write(END_SEPARATOR);
-            outputStream.write(NEWLINE);
-        } else {
-            if (byteToWrite != CARRIAGE) {
-                writeAndUpdateMessageDigest((byte) byteToWrite);
-            }
+    private void writeHash() throws IOException {
+        // increment the counter and add it to the hash
+        byte[] base64HashBytes = computeHashBeforeLog();
+        outputStream.write(BEGIN_SEPARATOR);
+        outputStream.write(base64HashBytes);
+        outputStream.write(END_SEPARATOR);
+        outputStream.write(NEWLINE);
+    }
+
+    /**
+     * Writes a segment of a line, which contains neither carriage return nor new line, to the stream and updates the
+     * message digest with it in one go.
+     *
+     * @param bytes the logged bytes
+     * @param offset the start of the segment
+     * @param length the length of the segment
+     */
+    private void writeAndUpdateMessageDigest(byte[] bytes, int offset, int length) {
+        if (length > 0) {
+            messageDigest.update(bytes, offset, length);
+            outputStream.write(bytes, offset, length);
         }
     }
 
@@ -147,19 +168,17 @@ public final class HashAndCounterGenerator {
      */
     private byte[] computeHashBeforeLog() throws IOException {
         writeAndUpdateMessageDigest(SPACE_SEPARATOR);
-//        // increment the counter, write it in the outputstream and add it to the hash
+        // increment the counter, write it in the outputstream and add it to the hash
         if (counter != null) {
             writeAndUpdateMessageDigest(SEPARATOR);
-            counter.getAndIncrement();
-            byte[] counterAsUTF8Bytes = counter.toString().getBytes(UTF_8);
+            byte[] counterAsUTF8Bytes = Long.toString(counter.incrementAndGet()).getBytes(UTF_8);
             outputStream.write(counterAsUTF8Bytes);
             messageDigest.update(counterAsUTF8Bytes);
             writeAndUpdateMessageDigest(SEPARATOR);
             writeAndUpdateMessageDigest(SPACE_SEPARATOR);
         }
-        // computing the hash and convert it in Base64
-        byte[] base64HashBytes = DatatypeConverter.printBase64Binary(messageDigest.digest()).getBytes(UTF_8);
-        messageDigest.reset();
+        // computing the hash and convert it in Base64, digest() also resets the message digest
+        byte[] base64HashBytes = Base64.getEncoder().encode(messageDigest.digest());
         // adding previous hash for next hash salting
         messageDigest.update(base64HashBytes);
         messageDigest.update(NEWLINE);
@@ -85,7 +85,7 @@ public abstract class EidasRequestLogger implements IMessageLogger, IFullMessage
         if (messageLoggerUtils.isLogCompleteMessage()) {
             try {
                 final byte[] msgObj = getSamlRequestDecodedBytes(httpServletRequest);
-                Document samlResponseDocument = XmlSchemaUtil.validateSamlSchema(msgObj);
+                Document samlResponseDocument = XmlSchemaUtil.parseAndValidateSamlSchema(msgObj);
                 final String characterEncoding = samlResponseDocument.getXmlEncoding();
                 final String samlRequest = characterEncoding != null ? new String(msgObj, characterEncoding) : new String(msgObj, StandardCharsets.UTF_8);
 
@@ -86,7 +86,7 @@ public abstract class EidasResponseLogger implements IMessageLogger, IFullMessag
         if (messageLoggerUtils.isLogCompleteMessage()) {
             try {
                 final byte[] msgObj = getSamlResponseDecodedBytes(httpServletRequest);
-                Document samlResponseDocument = XmlSchemaUtil.validateSamlSchema(msgObj);
+                Document samlResponseDocument = XmlSchemaUtil.parseAndValidateSamlSchema(msgObj);
                 final String characterEncoding = samlResponseDocument.getXmlEncoding();
                 final String samlResponse = characterEncoding != null ? new String(msgObj, characterEncoding) : new String(msgObj, StandardCharsets.UTF_8);
 
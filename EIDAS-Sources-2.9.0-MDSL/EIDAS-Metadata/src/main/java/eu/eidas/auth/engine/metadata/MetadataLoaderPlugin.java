@@ -19,6 +19,7 @@
 package eu.eidas.auth.engine.metadata;
 
 import eu.eidas.engine.exceptions.EIDASMetadataException;
+import org.opensaml.saml.saml2.metadata.EntityDescriptor;
 
 import java.util.List;
 
@@ -34,4 +35,23 @@ public interface MetadataLoaderPlugin {
 
     List<EntityDescriptorContainer> getEntityDescriptors() throws EIDASMetadataException;
 
+    /**
+     * Looks up the container of the entity descriptor with the given entityID. The default implementation scans the
+     * result of {@link #getEntityDescriptors()}; loaders keeping an index should override it.
+     *
+     * @param entityID the entityID of the looked up entity descriptor
+     * @return the container holding the entity descriptor, or {@code null} if none does
+     * @throws EIDASMetadataException if the entity descriptors cannot be loaded
+     */
+    default EntityDescriptorContainer getEntityDescriptorContainer(String entityID) throws EIDASMetadataException {
+        for (EntityDescriptorContainer edc : getEntityDescriptors()) {
+            for (EntityDescriptor ed : edc.getEntityDescriptors()) {
+                if (ed.getEntityID().equals(entityID)) {
+                    return edc;
+                }
+            }
+        }
+        return null;
+    }
+
 }
@@ -34,9 +34,16 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import java.security.cert.CertificateException;
 import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Base implementation of the {@link MetadataFetcherI} interface with caching capabilities.
+ * <p>
+ * Concurrent fetches of the metadata of the same issuer are coalesced: the first caller performs the fetch and the
+ * other callers wait for and share its outcome, whether it is the metadata or the failure.
  *
  * @since 1.1
  */
@@ -44,6 +51,12 @@ public abstract class AbstractCachingMetadataFetcher extends BaseMetadataFetcher
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractCachingMetadataFetcher.class);
 
+    /**
+     * Metadata fetches in progress, keyed by metadata URL.
+     */
+    private final ConcurrentMap<String, CompletableFuture<EidasMetadataParametersI>> inFlightFetches =
+            new ConcurrentHashMap<>();
+
     @Nonnull
     @Override
     public EidasMetadataParametersI getEidasMetadata(
@@ -57,8 +70,11 @@ public abstract class AbstractCachingMetadataFetcher extends BaseMetadataFetcher
         EidasMetadataParametersI metadata = getCache(metadataSigner, metadataClock).getEidasMetadataParameters(url);
 
         if (metadata == null) {
-            metadata = fetchEidasMetadataFromSuper(metadataIssuer, signingKeyInfo, metadataSigner, metadataClock);
-            getCache(metadataSigner, metadataClock).putEidasMetadataParameters(url, metadata);
+            metadata = fetchCoalesced(url, () -> getCache(metadataSigner, metadataClock).getEidasMetadataParameters(url), () -> {
+                EidasMetadataParametersI fetchedMetadata = fetchEidasMetadataFromSuper(metadataIssuer, signingKeyInfo, metadataSigner, metadataClock);
+                getCache(metadataSigner, metadataClock).putEidasMetadataParameters(url, fetchedMetadata);
+                return fetchedMetadata;
+            });
 
             if (metadata == null) {
                 throw new EIDASMetadataProviderException(EidasErrorKey.SAML_ENGINE_NO_METADATA.errorCode(),
@@ -74,7 +90,7 @@ public abstract class AbstractCachingMetadataFetcher extends BaseMetadataFetcher
                 EidasMetadataParametersI rolloverMetadataParameters = getRolloverCache(metadataSigner, metadataClock).getEidasMetadataParameters(url);
                 if (rolloverMetadataParameters == null) { // system not in roll over state
                     EidasMetadataParametersI oldMetadata = metadata;
-                    metadata = fetchEidasMetadataFromSuper(metadataIssuer, signingKeyInfo, metadataSigner, metadataClock); // synchronized
+                    metadata = fetchCoalesced(url, null, () -> fetchEidasMetadataFromSuper(metadataIssuer, signingKeyInfo, metadataSigner, metadataClock));
                     final ZonedDateTime rolloverValidity = metadataClock.getCurrentTime()
                             .plusSeconds(getRollOverMetadataConfig().getCacheLifeSpan());
                     if (oldMetadata.getValidUntil().isAfter(rolloverValidity)) { // only shorten
@@ -119,6 +135,62 @@ public abstract class AbstractCachingMetadataFetcher extends BaseMetadataFetcher
         return null;
     }
 
+    /**
+     * Runs the given fetch unless a fetch for the same url is already in progress, in which case the outcome of the
+     * running fetch is awaited and returned instead.
+     * <p>
+     * A caller which starts a fetch looks the metadata up again first, as a fetch for the same url may have completed
+     * between its cache miss and the start of its own fetch.
+     *
+     * @param url the metadata url used to identify concurrent fetches
+     * @param cachedLookup the lookup of the metadata already fetched, or {@code null} when the metadata must be fetched
+     * again
+     * @param fetch the fetch to run when no other fetch for the url is in progress
+     * @return the fetched metadata, possibly {@code null}
+     * @throws EIDASMetadataException the failure of the fetch, shared by all the callers waiting for it
+     */
+    private EidasMetadataParametersI fetchCoalesced(@Nonnull String url, MetadataFetch cachedLookup, @Nonnull MetadataFetch fetch)
+            throws EIDASMetadataException {
+        final CompletableFuture<EidasMetadataParametersI> ownFetch = new CompletableFuture<>();
+        final CompletableFuture<EidasMetadataParametersI> inFlightFetch = inFlightFetches.putIfAbsent(url, ownFetch);
+        if (inFlightFetch != null) {
+            LOG.debug("Waiting for the metadata fetch already in progress for url {}", url);
+            return awaitFetch(url, inFlightFetch);
+        }
+        try {
+            EidasMetadataParametersI metadata = null == cachedLookup ? null : cachedLookup.fetch();
+            if (metadata == null) {
+                metadata = fetch.fetch();
+            }
+            ownFetch.complete(metadata);
+            return metadata;
+        } catch (EIDASMetadataException | RuntimeException e) {
+            ownFetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightFetches.remove(url, ownFetch);
+        }
+    }
+
+    EidasMetadataParametersI awaitFetch(@Nonnull String url, @Nonnull CompletableFuture<EidasMetadataParametersI> inFlightFetch)
+            throws EIDASMetadataException {
+        try {
+            return inFlightFetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EIDASMetadataProviderException("Interrupted while waiting for metadata from URL " + url, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof EIDASMetadataException) {
+                throw (EIDASMetadataException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new EIDASMetadataProviderException(cause);
+        }
+    }
+
     private static boolean certificateBelongsToCachedMetadata(KeyInfo msgCertificate, EidasMetadataParametersI metadataParameters) {
         return metadataParameters.getRoleDescriptors().stream().anyMatch(rd -> {
             try {
@@ -140,4 +212,10 @@ public abstract class AbstractCachingMetadataFetcher extends BaseMetadataFetcher
     protected boolean isHttpRetrievalEnabled() {
         return true;
     }
+
+    @FunctionalInterface
+    private interface MetadataFetch {
+
+        EidasMetadataParametersI fetch() throws EIDASMetadataException;
+    }
 }
@@ -29,11 +29,13 @@ import eu.eidas.engine.exceptions.EIDASMetadataException;
 import eu.eidas.engine.exceptions.EIDASMetadataProviderException;
 import eu.eidas.util.Preconditions;
 import eu.eidas.util.WhitelistUtil;
+import net.shibboleth.utilities.java.support.collection.LockableClassToInstanceMultiMap;
 import net.shibboleth.utilities.java.support.httpclient.HttpClientBuilder;
 import net.shibboleth.utilities.java.support.httpclient.TLSSocketFactory;
 import net.shibboleth.utilities.java.support.httpclient.TLSSocketFactoryBuilder;
 import net.shibboleth.utilities.java.support.resolver.ResolverException;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.client.HttpClient;
 import org.opensaml.core.xml.XMLObject;
 import org.opensaml.saml.saml2.core.Issuer;
 import org.opensaml.saml.saml2.core.impl.IssuerBuilder;
@@ -44,14 +46,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.net.ssl.HostnameVerifier;
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 /**
@@ -59,6 +71,11 @@ import java.util.regex.Pattern;
  * <p>
  * This default implementation only fetches the metadata from the URL and validates its digital signature using the
  * {@link MetadataSignerI#validateMetadataSignature(SignableXMLObject)}.
+ * <p>
+ * All the fetches of an instance share one pooled, keep-alive http client, which is replaced when the TLS or the
+ * connection pool configuration changes. Metadata already fetched is refreshed with a conditional request, and reused
+ * without being parsed and verified again when the server answers that it has not been modified; the reuse is limited
+ * to the signer which verified the metadata, so that another trust configuration always verifies it afresh.
  *
  * @since 1.1
  */
@@ -72,25 +89,72 @@ public abstract class BaseMetadataFetcher implements MetadataFetcherI {
 
     private static final Pattern TLS_SPLITTER = Pattern.compile("[,;]");
 
+    private static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 20;
+
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 2;
+
     private ReloadableProperties whitelistConfigProperties;
 
+    /**
+     * Maximum number of pooled connections of the http client, over all the routes
+     */
+    private int maxConnectionsTotal = DEFAULT_MAX_CONNECTIONS_TOTAL;
+
+    /**
+     * Maximum number of pooled connections of the http client to a single metadata host
+     */
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+    /**
+     * Whether the metadata is refreshed with conditional requests (If-None-Match / If-Modified-Since)
+     */
+    private boolean conditionalRetrievalEnabled = true;
+
+    /**
+     * The last metadata fetched from each url, together with the validators returned by the server, per signer which
+     * verified it: metadata accepted under the trust of one signer is not handed to another one
+     */
+    private final Map<MetadataSignerI, ConcurrentMap<String, FetchedMetadata>> fetchedMetadata =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The long-lived http client used for all the metadata fetches, built on first use
+     */
+    private final AtomicReference<RetirableHttpClient> httpClient = new AtomicReference<>();
+
     protected EntityDescriptor fetchEntityDescriptor(@Nonnull String url) throws EIDASMetadataProviderException {
+        return fetchEntityDescriptor(url, null);
+    }
+
+    /**
+     * Fetches the metadata document, conditionally on it having changed when the validators of the previous retrieval
+     * are given.
+     *
+     * @param url the metadata url
+     * @param validators the validators returned with the previously fetched document, {@code null} to fetch the
+     * document unconditionally
+     * @return the fetched entity descriptor, {@code null} if the server answered that the document was not modified
+     * @throws EIDASMetadataProviderException if the metadata cannot be fetched
+     */
+    @Nullable
+    EntityDescriptor fetchEntityDescriptor(@Nonnull String url, @Nullable MetadataHttpValidators validators)
+            throws EIDASMetadataProviderException {
         validateUrl(url);
         EntityDescriptor entityDescriptor;
-        HttpClientBuilder httpClientBuilder = new HttpClientBuilder();
-        // EIDINT-2590 - Support for proxy configuration by using system properties
-        httpClientBuilder.setUseSystemProperties(true);
 
         DomCachingHttpMetadataProvider provider = null;
+        RetirableHttpClient leasedHttpClient = null;
+        SharedHttpClient sharedHttpClient = null;
 
         try {
-            // This registers a socket factory for the https scheme:
-            // specifying a null X509KeyManager and a null X509TrustManager is going to use the default ones from the JVM:
-            final TLSSocketFactory factory = newSslSocketFactory();
-            httpClientBuilder.setTLSSocketFactory(factory);
-            provider = new DomCachingHttpMetadataProvider(httpClientBuilder.buildClient(), url);
+            leasedHttpClient = acquireHttpClient();
+            sharedHttpClient = new SharedHttpClient(leasedHttpClient.getClient(), validators);
+            provider = new DomCachingHttpMetadataProvider(sharedHttpClient, url);
             provider.setParserPool(OpenSamlHelper.getSecuredParserPool());
             provider.initializeNonFinal();
+            if (sharedHttpClient.isNotModified()) {
+                return null;
+            }
 
             XMLObject metadata = provider.getMetadata();
             if (metadata instanceof EntityDescriptor) {
@@ -109,22 +173,119 @@ public abstract class BaseMetadataFetcher implements MetadataFetcherI {
                         EidasErrorKey.SAML_ENGINE_INVALID_METADATA.errorMessage(),
                         "Invalid entity descriptor for URL \"" + url + "\"");
             }
+            final MetadataHttpValidators responseValidators = sharedHttpClient.getResponseValidators();
+            if (null != responseValidators) {
+                entityDescriptor.getObjectMetadata().put(responseValidators);
+            }
         } catch (ResolverException e) {
             LOG.error("Error fetching metadata from URL \"" + url + "\": " + e, e);
             throw new EIDASMetadataProviderException(EidasErrorKey.SAML_ENGINE_INVALID_METADATA.errorCode(),
                     EidasErrorKey.SAML_ENGINE_INVALID_METADATA.errorMessage(), e);
 
         } catch (Exception e) {
+            if (null != sharedHttpClient && sharedHttpClient.isNotModified()) {
+                // the resolver had no document to parse
+                return null;
+            }
         	LOG.error("Exception fetching metadata from URL \"" + url + "\": " + e, e);
             throw new EIDASMetadataProviderException(e.getMessage(), e);
         } finally {
             if (provider != null) {
                 provider.destroy();
             }
+            if (leasedHttpClient != null) {
+                leasedHttpClient.release();
+            }
         }
         return entityDescriptor;
     }
 
+    /**
+     * Returns the pooled http client shared by all the metadata fetches, building it on first use.
+     * <p>
+     * Connections are kept alive between fetches, and the TLS socket factory, hence its TLS session cache, lives as
+     * long as the client.
+     *
+     * @return the shared http client
+     * @throws Exception if the http client cannot be built
+     */
+    protected HttpClient getHttpClient() throws Exception {
+        return currentHttpClient().getClient();
+    }
+
+    private RetirableHttpClient currentHttpClient() throws Exception {
+        RetirableHttpClient client = httpClient.get();
+        if (null == client) {
+            synchronized (httpClient) {
+                client = httpClient.get();
+                if (null == client) {
+                    client = new RetirableHttpClient(newHttpClient());
+                    httpClient.set(client);
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Leases the shared http client for one fetch, so that it is not closed while the fetch is running.
+     *
+     * @return the leased http client, to be released once the fetch is over
+     * @throws Exception if the http client cannot be built
+     */
+    RetirableHttpClient acquireHttpClient() throws Exception {
+        while (true) {
+            final RetirableHttpClient client = currentHttpClient();
+            if (client.acquire()) {
+                return client;
+            }
+            // retired meanwhile: it is no longer current, the next one is used instead
+        }
+    }
+
+    protected HttpClient newHttpClient() throws Exception {
+        HttpClientBuilder httpClientBuilder = new HttpClientBuilder();
+        // EIDINT-2590 - Support for proxy configuration by using system properties
+        httpClientBuilder.setUseSystemProperties(true);
+        httpClientBuilder.setConnectionCloseAfterResponse(false);
+        httpClientBuilder.setMaxConnectionsTotal(maxConnectionsTotal);
+        httpClientBuilder.setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+        // This registers a socket factory for the https scheme:
+        // specifying a null X509KeyManager and a null X509TrustManager is going to use the default ones from the JVM:
+        httpClientBuilder.setTLSSocketFactory(newSslSocketFactory());
+        return httpClientBuilder.buildClient();
+    }
+
+    /**
+     * Closes the shared http client and releases its pooled connections, once the fetches still using it are over.
+     */
+    public void destroy() {
+        final RetirableHttpClient previousClient;
+        synchronized (httpClient) {
+            previousClient = httpClient.getAndSet(null);
+        }
+        if (null != previousClient) {
+            previousClient.release();
+        }
+    }
+
+    /**
+     * Discards the shared http client after a configuration change, a new one is built on next use.
+     */
+    protected void resetHttpClient() {
+        destroy();
+    }
+
+    private static void closeHttpClient(HttpClient client) {
+        if (client instanceof Closeable) {
+            try {
+                ((Closeable) client).close();
+            } catch (IOException e) {
+                LOG.warn("Error closing metadata http client: " + e, e);
+            }
+        }
+    }
+
     private void validateUrl(@Nonnull String url) throws EIDASMetadataProviderException {
         if (!isValidUri(url)) {
             throw new EIDASMetadataProviderException(EidasErrorKey.SAML_ENGINE_INVALID_METADATA_SOURCE.errorCode(),
@@ -162,8 +323,20 @@ public abstract class BaseMetadataFetcher implements MetadataFetcherI {
     public EidasMetadataParametersI getEidasMetadata(@Nonnull Issuer metadataIssuer, KeyInfo signingKeyInfo, @Nonnull MetadataSignerI metadataSigner, MetadataClockI metadataClock)
             throws EIDASMetadataException {
         final String url = metadataIssuer.getValue();
+        final ConcurrentMap<String, FetchedMetadata> signerFetches = getFetchedMetadata(metadataSigner);
+        // 0) make the fetch conditional when the metadata verified by this signer is still valid
+        final FetchedMetadata previousFetch = isConditionalRetrievalEnabled() ? signerFetches.get(url) : null;
+        final MetadataHttpValidators requestValidators =
+                null != previousFetch && isValidUntilNow(previousFetch.getMetadataParameters(), metadataClock)
+                        ? previousFetch.getValidators() : null;
         // 1) fetch
-        EntityDescriptor entityDescriptor = fetchEntityDescriptor(url);
+        final EntityDescriptor entityDescriptor = null == requestValidators
+                ? fetchEntityDescriptor(url)
+                : fetchEntityDescriptor(url, requestValidators);
+        if (null == entityDescriptor) {
+            LOG.debug("Metadata from url {} not modified since last fetch", url);
+            return new EidasMetadataParameters(previousFetch.getMetadataParameters());
+        }
         // 2) validate the digital signature
         if (mustValidateSignature(url)) {
             metadataSigner.validateMetadataSignature(entityDescriptor);
@@ -171,9 +344,29 @@ public abstract class BaseMetadataFetcher implements MetadataFetcherI {
         // 3) release the DOM
         entityDescriptor.releaseDOM();
         final EidasMetadataParametersI eidasMetadataParameters = MetadataUtil.convertEntityDescriptor(entityDescriptor);
+        // 4) keep the validators of the response for the next refresh
+        final MetadataHttpValidators validators = getValidators(entityDescriptor);
+        if (null != validators && isConditionalRetrievalEnabled()) {
+            signerFetches.put(url, new FetchedMetadata(validators, new EidasMetadataParameters(eidasMetadataParameters)));
+        } else {
+            signerFetches.remove(url);
+        }
         return eidasMetadataParameters;
     }
 
+    private ConcurrentMap<String, FetchedMetadata> getFetchedMetadata(@Nonnull MetadataSignerI metadataSigner) {
+        return fetchedMetadata.computeIfAbsent(metadataSigner, signer -> new ConcurrentHashMap<>());
+    }
+
+    private static MetadataHttpValidators getValidators(EntityDescriptor entityDescriptor) {
+        final LockableClassToInstanceMultiMap<Object> objectMetadata = entityDescriptor.getObjectMetadata();
+        if (null == objectMetadata) {
+            return null;
+        }
+        final List<MetadataHttpValidators> validators = objectMetadata.get(MetadataHttpValidators.class);
+        return validators.isEmpty() ? null : validators.get(0);
+    }
+
     protected boolean isValidUri(String uri) {
         try {
             Preconditions.checkURISyntax(uri, "Metadata URL");
@@ -296,6 +489,27 @@ public abstract class BaseMetadataFetcher implements MetadataFetcherI {
         }
     }
 
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        resetHttpClient();
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        resetHttpClient();
+    }
+
+    public boolean isConditionalRetrievalEnabled() {
+        return conditionalRetrievalEnabled;
+    }
+
+    public void setConditionalRetrievalEnabled(boolean conditionalRetrievalEnabled) {
+        this.conditionalRetrievalEnabled = conditionalRetrievalEnabled;
+        if (!conditionalRetrievalEnabled) {
+            fetchedMetadata.clear();
+        }
+    }
+
     public void setWhitelistConfigProperties(ReloadableProperties whitelistConfigProperties) {
         this.whitelistConfigProperties = whitelistConfigProperties;
     }
@@ -304,4 +518,68 @@ public abstract class BaseMetadataFetcher implements MetadataFetcherI {
         return WhitelistUtil.isUseWhitelist(this.whitelistConfigProperties);
     }
 
+    /**
+     * The shared http client, with the number of fetches using it.
+     * <p>
+     * The fetcher holds one reference until the client is replaced or destroyed, and each fetch holds one while it
+     * runs: the client is closed when the last reference is released, so that a replaced client does not abort the
+     * fetches still running on it.
+     */
+    static final class RetirableHttpClient {
+
+        private final HttpClient client;
+
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        RetirableHttpClient(HttpClient client) {
+            this.client = client;
+        }
+
+        HttpClient getClient() {
+            return client;
+        }
+
+        /**
+         * @return {@code false} if the client has already been closed
+         */
+        boolean acquire() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                closeHttpClient(client);
+            }
+        }
+    }
+
+    /**
+     * Metadata already fetched and verified, with the validators of the response it came with.
+     */
+    private static final class FetchedMetadata {
+
+        private final MetadataHttpValidators validators;
+
+        private final EidasMetadataParametersI metadataParameters;
+
+        private FetchedMetadata(MetadataHttpValidators validators, EidasMetadataParametersI metadataParameters) {
+            this.validators = validators;
+            this.metadataParameters = metadataParameters;
+        }
+
+        MetadataHttpValidators getValidators() {
+            return validators;
+        }
+
+        EidasMetadataParametersI getMetadataParameters() {
+            return metadataParameters;
+        }
+    }
 }
@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import java.util.Objects;
 
 /**
  * The implementation of the {@link MetadataFetcherI} interface for the Node.
@@ -70,13 +71,30 @@ public class CachingMetadataFetcher extends AbstractCachingMetadataFetcher {
 
     private RollOverMetadataConfig rollOverMetadataConfig;
 
+    /**
+     * The last composed caching service, with the inputs it was built from.
+     */
+    private volatile CacheChain cacheChain;
+
+    /**
+     * Returns the caching service composed of the validity checking, locally stored and trust matching decorators
+     * around the cache.
+     * <p>
+     * The composed service is built once and reused as long as the signer, the clock and the configuration of this
+     * fetcher do not change. The signer checks the trust store on each lookup, so a reloaded trust store is taken
+     * into account without rebuilding the service.
+     *
+     * @param metadataSigner the signer holding the trust store
+     * @param metadataClock the clock checking the validity of the metadata
+     * @return the composed caching service
+     */
     public IMetadataCachingService getCache(MetadataSignerI metadataSigner, MetadataClockI metadataClock) {
-        return new ValidityCheckingMetadataCachingService(metadataClock,
-                new LocallyStoredMetadataCachingService(metadataSigner, metadataLoaderPlugin,
-                        new TrustMatchingAndCacheClearingMetadataCachingService(metadataSigner, cache))
-                        .setTrustedEntityDescriptors(trustedEntityDescriptors)
-                        .setValidateEntityDescriptorSignature(validateEntityDescriptorSignature)
-                        .setMetadataLoaderPluginEnabled(!httpRetrievalEnabled));
+        CacheChain currentCacheChain = cacheChain;
+        if (null == currentCacheChain || !currentCacheChain.isBuiltFrom(this, metadataSigner, metadataClock)) {
+            currentCacheChain = new CacheChain(this, metadataSigner, metadataClock);
+            cacheChain = currentCacheChain;
+        }
+        return currentCacheChain.cachingService;
     }
 
     @Override
@@ -134,10 +152,12 @@ public class CachingMetadataFetcher extends AbstractCachingMetadataFetcher {
 
     public void setTlsEnabledProtocols(String tlsEnabledProtocols) {
         this.tlsEnabledProtocols = tlsEnabledProtocols;
+        resetHttpClient();
     }
 
     public void setTlsEnabledCiphers(String tlsEnabledCiphers) {
         this.tlsEnabledCipherSuites = tlsEnabledCiphers;
+        resetHttpClient();
     }
 
     public void setTrustedEidasMetadataUrls(String trustedEidasMetadataUrls) {
@@ -147,4 +167,52 @@ public class CachingMetadataFetcher extends AbstractCachingMetadataFetcher {
     public void setValidateEidasMetadataSignature(boolean validateEidasMetadataSignature) {
         this.validateEntityDescriptorSignature = validateEidasMetadataSignature;
     }
+
+    /**
+     * Immutable composed caching service, with the inputs it was built from.
+     */
+    private static final class CacheChain {
+
+        private final MetadataSignerI metadataSigner;
+
+        private final MetadataClockI metadataClock;
+
+        private final IMetadataCachingService cache;
+
+        private final MetadataLoaderPlugin metadataLoaderPlugin;
+
+        private final String trustedEntityDescriptors;
+
+        private final boolean validateEntityDescriptorSignature;
+
+        private final boolean httpRetrievalEnabled;
+
+        private final IMetadataCachingService cachingService;
+
+        private CacheChain(CachingMetadataFetcher fetcher, MetadataSignerI metadataSigner, MetadataClockI metadataClock) {
+            this.metadataSigner = metadataSigner;
+            this.metadataClock = metadataClock;
+            this.cache = fetcher.cache;
+            this.metadataLoaderPlugin = fetcher.metadataLoaderPlugin;
+            this.trustedEntityDescriptors = fetcher.trustedEntityDescriptors;
+            this.validateEntityDescriptorSignature = fetcher.validateEntityDescriptorSignature;
+            this.httpRetrievalEnabled = fetcher.httpRetrievalEnabled;
+            this.cachingService = new ValidityCheckingMetadataCachingService(metadataClock,
+                    new LocallyStoredMetadataCachingService(metadataSigner, metadataLoaderPlugin,
+                            new TrustMatchingAndCacheClearingMetadataCachingService(metadataSigner, cache))
+                            .setTrustedEntityDescriptors(trustedEntityDescriptors)
+                            .setValidateEntityDescriptorSignature(validateEntityDescriptorSignature)
+                            .setMetadataLoaderPluginEnabled(!httpRetrievalEnabled));
+        }
+
+        private boolean isBuiltFrom(CachingMetadataFetcher fetcher, MetadataSignerI metadataSigner, MetadataClockI metadataClock) {
+            return this.metadataSigner == metadataSigner
+                    && this.metadataClock == metadataClock
+                    && this.cache == fetcher.cache
+                    && this.metadataLoaderPlugin == fetcher.metadataLoaderPlugin
+                    && Objects.equals(this.trustedEntityDescriptors, fetcher.trustedEntityDescriptors)
+                    && this.validateEntityDescriptorSignature == fetcher.validateEntityDescriptorSignature
+                    && this.httpRetrievalEnabled == fetcher.httpRetrievalEnabled;
+        }
+    }
 }
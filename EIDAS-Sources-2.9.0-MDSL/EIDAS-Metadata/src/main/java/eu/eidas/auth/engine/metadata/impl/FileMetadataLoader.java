@@ -24,6 +24,7 @@ import eu.eidas.auth.engine.metadata.IStaticMetadataChangeListener;
 import eu.eidas.auth.engine.metadata.MetadataLoaderPlugin;
 import eu.eidas.auth.engine.metadata.MetadataUtil;
 import eu.eidas.encryption.exception.UnmarshallException;
+import eu.eidas.engine.exceptions.EIDASMetadataException;
 import eu.eidas.engine.exceptions.EIDASMetadataProviderException;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.opensaml.saml.saml2.metadata.EntityDescriptor;
@@ -31,18 +32,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * MetadataLoaderPlugin sample implementation for testing only (not robust)
  * the source metadata: all readable xml files found in a configured directory
+ * <p>
+ * The files are parsed once, into an index of their entity descriptors by entityID. The index is updated file by
+ * file when a watcher of the directory reports a change, and the registered {@link IStaticMetadataChangeListener}s
+ * are notified of the entity descriptors added, updated or removed.
  */
 public class FileMetadataLoader implements MetadataLoaderPlugin {
 
@@ -52,7 +71,25 @@ public class FileMetadataLoader implements MetadataLoaderPlugin {
 
     private static final Logger LOG = LoggerFactory.getLogger(FileMetadataLoader.class.getName());
 
-    List<IStaticMetadataChangeListener> listeners = new ArrayList<>();
+    /**
+     * The listeners are held weakly: caching services subscribe when they are created and may be short-lived
+     */
+    private final Set<IStaticMetadataChangeListener> listeners =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /**
+     * The indexed xml files of the repository, sorted by path
+     */
+    private final Map<Path, IndexedFile> indexedFiles = new TreeMap<>();
+
+    /**
+     * The entity descriptors containers of the indexed files, by entityID
+     */
+    private final Map<String, EntityDescriptorContainer> containersByEntityId = new ConcurrentHashMap<>();
+
+    private boolean indexed = false;
+
+    private WatchService watchService;
 
     /**
      * @return a list of entity descriptors read from the current directory (repositoryPath)
@@ -64,35 +101,36 @@ public class FileMetadataLoader implements MetadataLoaderPlugin {
         }
 
         List<EntityDescriptorContainer> list = new ArrayList<>();
-        List<Path> files = getFiles();
-        String entityID;
-        for (Path filePath : files) {
-            EntityDescriptorContainer descriptors = null;
-            try {
-                descriptors = loadDescriptors(filePath);
-            } catch (UnmarshallException e) {
-                LOG.error("Failed to unmarshall entity descriptors from static metadata file '"+filePath+"'");
-                LOG.error(e.toString());
-            }
+        for (IndexedFile indexedFile : rescan()) {
+            EntityDescriptorContainer descriptors = indexedFile.getContainer();
             if (descriptors != null) {
                 list.add(descriptors);
-                List<String> ids = new ArrayList<>();
                 for (EntityDescriptor ed : descriptors.getEntityDescriptors()) {
-                    entityID = ed.getEntityID();
-                    if (!StringEscapeUtils.escapeJava(entityID).equals(entityID)) {
+                    if (!isValidEntityID(ed.getEntityID())) {
                         throw new EIDASMetadataProviderException(EidasErrorKey.SAML_ENGINE_NO_METADATA.errorCode(),
                                 EidasErrorKey.SAML_ENGINE_NO_METADATA.errorMessage(),
-                                "No entity descriptor for URL " + entityID);
+                                "No entity descriptor for URL " + ed.getEntityID());
                     }
-
-                    ids.add(entityID);
-                    LOG.info("Added entity descriptor for " + entityID);
                 }
             }
         }
         return list;
     }
 
+    /**
+     * @param entityID the entityID of the looked up entity descriptor
+     * @return the indexed entity descriptors container holding the entity descriptor, or {@code null} if none does
+     * @throws EIDASMetadataException if the repository cannot be indexed
+     */
+    @Override
+    public EntityDescriptorContainer getEntityDescriptorContainer(String entityID) throws EIDASMetadataException {
+        if (isRepositoryPathNullOrBlank || entityID == null) {
+            return null;
+        }
+        ensureIndexed();
+        return containersByEntityId.get(entityID);
+    }
+
     public String getRepositoryPath() {
         return repositoryPath;
     }
@@ -108,6 +146,28 @@ public class FileMetadataLoader implements MetadataLoaderPlugin {
                 throw new IllegalArgumentException("Invalid repository path", e);
             }
         }
+        resetIndex();
+    }
+
+    /**
+     * Stops watching the repository directory.
+     */
+    public synchronized void destroy() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close the watcher of " + this.repositoryPath, e);
+            }
+            watchService = null;
+        }
+    }
+
+    private synchronized void resetIndex() {
+        destroy();
+        indexedFiles.clear();
+        containersByEntityId.clear();
+        indexed = false;
     }
 
     private boolean isRepositoryPathNullOrBlank(String repositoryPath) {
@@ -147,10 +207,242 @@ public class FileMetadataLoader implements MetadataLoaderPlugin {
     }
 
     public void addListenerContentChanged( IStaticMetadataChangeListener listener){
-        if (!listeners.contains(listener)) {
-            listeners.add(listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Builds the index on first use, and starts watching the repository directory.
+     */
+    private synchronized void ensureIndexed() {
+        if (!indexed) {
+            indexRepository();
+            indexed = true;
+            LOG.info("Indexed {} entity descriptors from {}", containersByEntityId.size(), this.repositoryPath);
+            startWatching();
         }
     }
 
-}
+    /**
+     * Brings the index up to date with the files of the repository directory, only re-reading the files which changed.
+     *
+     * @return the indexed files, sorted by path
+     */
+    private List<IndexedFile> rescan() {
+        ensureIndexed();
+        final List<FileChange> changes;
+        final List<IndexedFile> files;
+        synchronized (this) {
+            changes = indexRepository();
+            files = new ArrayList<>(indexedFiles.values());
+        }
+        notifyListeners(changes);
+        return files;
+    }
+
+    private synchronized List<FileChange> indexRepository() {
+        final List<FileChange> changes = new ArrayList<>();
+        final Set<Path> presentFiles = new HashSet<>();
+        for (Path filePath : getFiles()) {
+            if (isMetadataFile(filePath)) {
+                presentFiles.add(filePath);
+                changes.add(indexFile(filePath));
+            }
+        }
+        for (Path indexedPath : new ArrayList<>(indexedFiles.keySet())) {
+            if (!presentFiles.contains(indexedPath)) {
+                changes.add(unindexFile(indexedPath));
+            }
+        }
+        return changes;
+    }
+
+    private synchronized FileChange indexFile(Path filePath) {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return unindexFile(filePath);
+        }
+        final IndexedFile previous = indexedFiles.get(filePath);
+        if (previous != null && previous.isUnchanged(attributes)) {
+            return FileChange.NONE;
+        }
+        EntityDescriptorContainer descriptors = null;
+        try {
+            descriptors = loadDescriptors(filePath);
+        } catch (UnmarshallException e) {
+            LOG.error("Failed to unmarshall entity descriptors from static metadata file '"+filePath+"'");
+            LOG.error(e.toString());
+        }
+        final IndexedFile current = new IndexedFile(attributes, descriptors);
+        indexedFiles.put(filePath, current);
+        return reindex(previous, current);
+    }
+
+    private synchronized FileChange unindexFile(Path filePath) {
+        final IndexedFile previous = indexedFiles.remove(filePath);
+        return reindex(previous, null);
+    }
+
+    private FileChange reindex(IndexedFile previous, IndexedFile current) {
+        final Set<String> removedEntityIds = new HashSet<>();
+        if (previous != null && previous.getContainer() != null) {
+            for (EntityDescriptor ed : previous.getContainer().getEntityDescriptors()) {
+                containersByEntityId.remove(ed.getEntityID(), previous.getContainer());
+                removedEntityIds.add(ed.getEntityID());
+            }
+        }
+        final List<EntityDescriptor> addedDescriptors = new ArrayList<>();
+        if (current != null && current.getContainer() != null) {
+            for (EntityDescriptor ed : current.getContainer().getEntityDescriptors()) {
+                final String entityID = ed.getEntityID();
+                if (isValidEntityID(entityID)) {
+                    containersByEntityId.put(entityID, current.getContainer());
+                    removedEntityIds.remove(entityID);
+                    addedDescriptors.add(ed);
+                    LOG.info("Added entity descriptor for " + entityID);
+                } else {
+                    LOG.error("Ignored entity descriptor with invalid entityID " + StringEscapeUtils.escapeJava(entityID));
+                }
+            }
+        }
+        // an initial indexation is not a change
+        return indexed ? new FileChange(removedEntityIds, addedDescriptors) : FileChange.NONE;
+    }
+
+    private void notifyListeners(List<FileChange> changes) {
+        final List<IStaticMetadataChangeListener> currentListeners;
+        synchronized (listeners) {
+            currentListeners = new ArrayList<>(listeners);
+        }
+        for (FileChange change : changes) {
+            for (IStaticMetadataChangeListener listener : currentListeners) {
+                change.notifyTo(listener);
+            }
+        }
+    }
+
+    private synchronized void startWatching() {
+        final Path directory = Paths.get(this.repositoryPath);
+        if (!Files.isDirectory(directory)) {
+            LOG.warn("Static metadata repository " + this.repositoryPath + " is not a directory, it will not be watched");
+            return;
+        }
+        try {
+            final WatchService newWatchService = FileSystems.getDefault().newWatchService();
+            directory.register(newWatchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchService = newWatchService;
+        } catch (IOException e) {
+            LOG.warn("Failed to watch static metadata repository " + this.repositoryPath, e);
+            return;
+        }
+        final WatchService startedWatchService = watchService;
+        final Thread watcher = new Thread(() -> watch(directory, startedWatchService), "FileMetadataLoader-" + directory.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(Path directory, WatchService watchService) {
+        try {
+            while (true) {
+                final WatchKey key = watchService.take();
+                final List<FileChange> changes = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // a failure on one change must not stop the watcher
+                    try {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            changes.addAll(indexRepository());
+                        } else {
+                            final Path filePath = directory.resolve((Path) event.context());
+                            if (isMetadataFile(filePath)) {
+                                changes.add(Files.exists(filePath) ? indexFile(filePath) : unindexFile(filePath));
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        LOG.error("Failed to process the change " + event.kind() + " " + event.context()
+                                + " of static metadata repository " + directory + ": " + e, e);
+                    }
+                }
+                notifyListeners(changes);
+                if (!key.reset()) {
+                    LOG.warn("Static metadata repository " + directory + " is no longer watched");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOG.debug("Stopped watching static metadata repository " + directory);
+        }
+    }
+
+    private static boolean isMetadataFile(Path filePath) {
+        return filePath.toString().endsWith(".xml");
+    }
+
+    private static boolean isValidEntityID(String entityID) {
+        return StringEscapeUtils.escapeJava(entityID).equals(entityID);
+    }
 
+    /**
+     * An indexed file with the attributes it had when it was read.
+     */
+    private static final class IndexedFile {
+
+        private final FileTime lastModifiedTime;
+
+        private final long size;
+
+        private final EntityDescriptorContainer container;
+
+        private IndexedFile(BasicFileAttributes attributes, EntityDescriptorContainer container) {
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.container = container;
+        }
+
+        private boolean isUnchanged(BasicFileAttributes attributes) {
+            return lastModifiedTime.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+
+        private EntityDescriptorContainer getContainer() {
+            return container;
+        }
+    }
+
+    /**
+     * The entity descriptors removed and added by the change of one file.
+     */
+    private static final class FileChange {
+
+        private static final FileChange NONE = new FileChange(Collections.emptySet(), Collections.emptyList());
+
+        private final Set<String> removedEntityIds;
+
+        private final List<EntityDescriptor> addedDescriptors;
+
+        private FileChange(Set<String> removedEntityIds, List<EntityDescriptor> addedDescriptors) {
+            this.removedEntityIds = removedEntityIds;
+            this.addedDescriptors = addedDescriptors;
+        }
+
+        private void notifyTo(IStaticMetadataChangeListener listener) {
+            for (String entityID : removedEntityIds) {
+                try {
+                    listener.remove(entityID);
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to notify the removal of the entity descriptor " + entityID + ": " + e, e);
+                }
+            }
+            for (EntityDescriptor ed : addedDescriptors) {
+                try {
+                    // the listener verifies the entity descriptor with its own metadata signer
+                    listener.add(ed, null);
+                } catch (EIDASMetadataException | RuntimeException e) {
+                    LOG.error("Failed to notify the change of the entity descriptor " + ed.getEntityID() + ": " + e);
+                }
+            }
+        }
+    }
+}
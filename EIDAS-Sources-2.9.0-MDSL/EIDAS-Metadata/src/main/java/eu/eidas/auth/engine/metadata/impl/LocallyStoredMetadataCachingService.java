@@ -32,7 +32,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.util.List;
 
 /**
  * perform post construct task, eg populating the cache with file based metadata
@@ -99,9 +98,10 @@ class LocallyStoredMetadataCachingService implements IMetadataCachingService, IS
     protected EidasMetadataParametersI loadWithPlugin(String url, MetadataSignerI metadataSigner) throws EIDASMetadataException {
         EidasMetadataParametersI eidasMetadataParameters = null;
         if (metadataLoaderPlugin != null) {
-            List<EntityDescriptorContainer> fileStoredDescriptors = metadataLoaderPlugin.getEntityDescriptors();
-            if (internalCachingService != null) {
-                for (EntityDescriptorContainer edc : fileStoredDescriptors) {
+            EntityDescriptorContainer edc = metadataLoaderPlugin.getEntityDescriptorContainer(url);
+            if (internalCachingService != null && edc != null) {
+                // the loader may hand the same indexed descriptors to concurrent lookups
+                synchronized (edc) {
                     for (EntityDescriptor ed : edc.getEntityDescriptors()) {
                         if (ed.getEntityID().equals(url)) {
                             add(ed, metadataSigner);
@@ -118,25 +118,43 @@ class LocallyStoredMetadataCachingService implements IMetadataCachingService, IS
         return eidasMetadataParameters;
     }
 
+    /**
+     * Verifies and caches an entity descriptor, also when notified by the metadata loader plugin of a changed
+     * entity descriptor.
+     *
+     * @param ed the {@link EntityDescriptor}
+     * @param metadataSigner the metadata signer verifying the entity descriptor, this service's own signer if {@code null}
+     * @throws EIDASMetadataException if the signature of the entity descriptor is not valid
+     */
     public void add(EntityDescriptor ed, MetadataSignerI metadataSigner) throws EIDASMetadataException {
+        if (!metadataLoaderPluginEnabled) {
+            return;
+        }
+        final MetadataSignerI signer = null != metadataSigner ? metadataSigner : this.metadataSigner;
         String url = ed.getEntityID();
-        if (mustValidateSignature(url)) {
-            try {
-                metadataSigner.validateMetadataSignature(ed);
-            } catch (EIDASMetadataException e) {
-                LOG.error("Signature validation failed for " + url);
-                LOG.error(e.toString());
-                throw (e);
+        final EidasMetadataParametersI eidasMetadataParameters;
+        synchronized (ed) {
+            if (mustValidateSignature(url)) {
+                try {
+                    signer.validateMetadataSignature(ed);
+                } catch (EIDASMetadataException e) {
+                    LOG.error("Signature validation failed for " + url);
+                    LOG.error(e.toString());
+                    throw (e);
+                }
             }
+            eidasMetadataParameters = MetadataUtil.convertEntityDescriptor(ed);
         }
         if (null != internalCachingService) {
-            EidasMetadataParametersI eidasMetadataParameters = MetadataUtil.convertEntityDescriptor(ed);
             internalCachingService.putEidasMetadataParameters(ed.getEntityID(), eidasMetadataParameters);
         }
     }
 
     @Override
     public void remove(String entityID) {
+        if (!metadataLoaderPluginEnabled) {
+            return;
+        }
         removeFromCache(entityID);
     }
 
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.engine.metadata.impl;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+
+import javax.annotation.Nullable;
+
+/**
+ * The cache validators (ETag and Last-Modified) returned by a metadata server together with a metadata document.
+ * <p>
+ * They are sent back on the next retrieval of the same document as a conditional request, so that an unchanged
+ * document does not have to be downloaded, parsed and verified again.
+ */
+final class MetadataHttpValidators {
+
+    private final String eTag;
+
+    private final String lastModified;
+
+    MetadataHttpValidators(@Nullable String eTag, @Nullable String lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Extracts the validators of a successful response.
+     *
+     * @param response the http response
+     * @return the validators of the response or {@code null} when the response has none
+     */
+    @Nullable
+    static MetadataHttpValidators fromResponse(@Nullable HttpResponse response) {
+        if (null == response || response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            return null;
+        }
+        final String eTag = headerValue(response, HttpHeaders.ETAG);
+        final String lastModified = headerValue(response, HttpHeaders.LAST_MODIFIED);
+        if (null == eTag && null == lastModified) {
+            return null;
+        }
+        return new MetadataHttpValidators(eTag, lastModified);
+    }
+
+    /**
+     * Makes the given request conditional on the document having changed since these validators were issued.
+     *
+     * @param request the request to send to the metadata server
+     */
+    void applyTo(HttpRequest request) {
+        if (null != eTag) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        }
+        if (null != lastModified) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    @Nullable
+    String getETag() {
+        return eTag;
+    }
+
+    @Nullable
+    String getLastModified() {
+        return lastModified;
+    }
+
+    @Nullable
+    private static String headerValue(HttpResponse response, String headerName) {
+        return response.containsHeader(headerName) ? response.getFirstHeader(headerName).getValue() : null;
+    }
+}
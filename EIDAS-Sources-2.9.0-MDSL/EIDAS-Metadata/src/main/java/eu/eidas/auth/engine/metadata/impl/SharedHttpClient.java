@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.engine.metadata.impl;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * An {@link HttpClient} view of the long-lived client of a {@link BaseMetadataFetcher}, handed to the short-lived
+ * metadata resolvers.
+ * <p>
+ * It is deliberately not {@link java.io.Closeable}, so that destroying a resolver does not close the pooled
+ * connections shared by all the fetches. It also records the cache validators of the last successful response, so
+ * that the next retrieval of the same document can be made conditional, and makes its requests conditional on the
+ * validators of the previous retrieval when there was one.
+ */
+final class SharedHttpClient implements HttpClient {
+
+    private final HttpClient delegate;
+
+    private final MetadataHttpValidators requestValidators;
+
+    private volatile MetadataHttpValidators responseValidators;
+
+    private volatile boolean notModified;
+
+    SharedHttpClient(HttpClient delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate the long-lived http client
+     * @param requestValidators the validators of the previously retrieved document, {@code null} to retrieve the
+     * document unconditionally
+     */
+    SharedHttpClient(HttpClient delegate, @Nullable MetadataHttpValidators requestValidators) {
+        this.delegate = delegate;
+        this.requestValidators = requestValidators;
+    }
+
+    /**
+     * @return the cache validators of the last successful response, {@code null} if it had none
+     */
+    @Nullable
+    MetadataHttpValidators getResponseValidators() {
+        return responseValidators;
+    }
+
+    /**
+     * @return {@code true} if the server answered the conditional request that the document was not modified
+     */
+    boolean isNotModified() {
+        return notModified;
+    }
+
+    private <R extends HttpRequest> R conditional(R request) {
+        if (null != requestValidators) {
+            requestValidators.applyTo(request);
+        }
+        return request;
+    }
+
+    private HttpResponse record(HttpResponse response) {
+        if (null != response) {
+            final int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_OK) {
+                responseValidators = MetadataHttpValidators.fromResponse(response);
+            }
+            notModified = statusCode == HttpStatus.SC_NOT_MODIFIED && null != requestValidators;
+        }
+        return response;
+    }
+
+    private <T> ResponseHandler<T> recording(ResponseHandler<? extends T> responseHandler) {
+        return response -> responseHandler.handleResponse(record(response));
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams() {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager() {
+        return delegate.getConnectionManager();
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        return record(delegate.execute(conditional(request)));
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+        return record(delegate.execute(conditional(request), context));
+    }
+
+    @Override
+    public HttpResponse execute(HttpHost target, HttpRequest request) throws IOException {
+        return record(delegate.execute(target, conditional(request)));
+    }
+
+    @Override
+    public HttpResponse execute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+        return record(delegate.execute(target, conditional(request), context));
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler) throws IOException {
+        return delegate.execute(conditional(request), recording(responseHandler));
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler, HttpContext context)
+            throws IOException {
+        return delegate.execute(conditional(request), recording(responseHandler), context);
+    }
+
+    @Override
+    public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> responseHandler)
+            throws IOException {
+        return delegate.execute(target, conditional(request), recording(responseHandler));
+    }
+
+    @Override
+    public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> responseHandler,
+                         HttpContext context) throws IOException {
+        return delegate.execute(target, conditional(request), recording(responseHandler), context);
+    }
+}
@@ -28,15 +28,29 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
 import org.opensaml.saml.saml2.metadata.EntityDescriptor;
 import org.opensaml.xmlsec.signature.SignableXMLObject;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
@@ -108,4 +122,132 @@ public class AbstractCachingMetadataFetcherTest {
 
         final EidasMetadataParametersI eidasMetadata = spyCachingMetadataFetcher.getEidasMetadata("https://url.be", mockMetadataSigner, mockMetadataClock);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for
+     * {@link AbstractCachingMetadataFetcher#getEidasMetadata(String, MetadataSignerI, MetadataClockI)}
+     * when several callers concurrently miss the cache for the same url
+     * <p>
+     * Must succeed: the metadata is fetched only once and shared by all the callers.
+     */
+    @Test
+    public void getEidasMetadataConcurrentCacheMissesFetchOnce() throws Exception {
+        final int callers = 8;
+        final CountDownLatch joinedFetches = new CountDownLatch(callers - 1);
+        final CountDownLatch releaseFetch = new CountDownLatch(1);
+        final AtomicInteger fetches = new AtomicInteger();
+
+        final AbstractCachingMetadataFetcher spyCachingMetadataFetcher = spy(AbstractCachingMetadataFetcher.class);
+        final IMetadataCachingService iMetadataCachingService = mock(IMetadataCachingService.class);
+        doReturn(null).when(iMetadataCachingService).getEidasMetadataParameters(anyString());
+        doReturn(iMetadataCachingService).when(spyCachingMetadataFetcher).getCache(any(), any());
+        doReturn(true).when(spyCachingMetadataFetcher).isValidUntilNow(any(), any());
+        doAnswer(blockingFetch(fetches, releaseFetch, null)).when(spyCachingMetadataFetcher).fetchEntityDescriptor(anyString());
+        doAnswer(countingJoin(joinedFetches)).when(spyCachingMetadataFetcher).awaitFetch(anyString(), any());
+
+        final List<Future<EidasMetadataParametersI>> results = callConcurrently(spyCachingMetadataFetcher, callers, joinedFetches, releaseFetch);
+
+        final EidasMetadataParametersI expectedMetadata = results.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<EidasMetadataParametersI> result : results) {
+            assertSame(expectedMetadata, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    /**
+     * Test method for
+     * {@link AbstractCachingMetadataFetcher#getEidasMetadata(String, MetadataSignerI, MetadataClockI)}
+     * when several callers concurrently miss the cache for the same url and the fetch fails
+     * <p>
+     * Must fail for every caller with the failure of the single fetch.
+     */
+    @Test
+    public void getEidasMetadataConcurrentCacheMissesShareFailure() throws Exception {
+        final int callers = 8;
+        final CountDownLatch joinedFetches = new CountDownLatch(callers - 1);
+        final CountDownLatch releaseFetch = new CountDownLatch(1);
+        final AtomicInteger fetches = new AtomicInteger();
+        final EIDASMetadataProviderException fetchFailure = new EIDASMetadataProviderException("peer node unavailable");
+
+        final AbstractCachingMetadataFetcher spyCachingMetadataFetcher = spy(AbstractCachingMetadataFetcher.class);
+        final IMetadataCachingService iMetadataCachingService = mock(IMetadataCachingService.class);
+        doReturn(null).when(iMetadataCachingService).getEidasMetadataParameters(anyString());
+        doReturn(iMetadataCachingService).when(spyCachingMetadataFetcher).getCache(any(), any());
+        doAnswer(blockingFetch(fetches, releaseFetch, fetchFailure)).when(spyCachingMetadataFetcher).fetchEntityDescriptor(anyString());
+        doAnswer(countingJoin(joinedFetches)).when(spyCachingMetadataFetcher).awaitFetch(anyString(), any());
+
+        final List<Future<EidasMetadataParametersI>> results = callConcurrently(spyCachingMetadataFetcher, callers, joinedFetches, releaseFetch);
+
+        for (Future<EidasMetadataParametersI> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail("Expected the fetch failure to be shared by all callers");
+            } catch (ExecutionException e) {
+                assertSame(fetchFailure, e.getCause());
+            }
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    /**
+     * Test method for
+     * {@link AbstractCachingMetadataFetcher#getEidasMetadata(String, MetadataSignerI, MetadataClockI)}
+     * when the metadata is cached by another fetch between the cache miss and the start of the fetch
+     * <p>
+     * Must succeed: the cached metadata is returned without fetching it again.
+     */
+    @Test
+    public void getEidasMetadataCachedAfterCacheMissNotFetched() throws EIDASMetadataException {
+        final EidasMetadataParametersI cachedMetadata = mock(EidasMetadataParametersI.class);
+        final AbstractCachingMetadataFetcher spyCachingMetadataFetcher = spy(AbstractCachingMetadataFetcher.class);
+        final IMetadataCachingService iMetadataCachingService = mock(IMetadataCachingService.class);
+        Mockito.when(iMetadataCachingService.getEidasMetadataParameters(anyString()))
+                .thenReturn(null)            // cache miss
+                .thenReturn(cachedMetadata); // cached by the fetch which completed in the meantime
+        doReturn(iMetadataCachingService).when(spyCachingMetadataFetcher).getCache(any(), any());
+
+        final EidasMetadataParametersI eidasMetadata = spyCachingMetadataFetcher.getEidasMetadata("https://url.be",
+                mock(MetadataSignerI.class), mock(MetadataClockI.class));
+
+        assertSame(cachedMetadata, eidasMetadata);
+        Mockito.verify(spyCachingMetadataFetcher, Mockito.never()).fetchEntityDescriptor(anyString());
+    }
+
+    private static Answer<EidasMetadataParametersI> countingJoin(CountDownLatch joinedFetches) {
+        return invocationOnMock -> {
+            joinedFetches.countDown();
+            return (EidasMetadataParametersI) invocationOnMock.callRealMethod();
+        };
+    }
+
+    private static Answer<EntityDescriptor> blockingFetch(AtomicInteger fetches, CountDownLatch releaseFetch, EIDASMetadataProviderException failure) {
+        return invocationOnMock -> {
+            fetches.incrementAndGet();
+            assertTrue(releaseFetch.await(10, TimeUnit.SECONDS));
+            if (failure != null) {
+                throw failure;
+            }
+            return mock(EntityDescriptor.class);
+        };
+    }
+
+    private static List<Future<EidasMetadataParametersI>> callConcurrently(AbstractCachingMetadataFetcher fetcher, int callers,
+                                                                          CountDownLatch joinedFetches, CountDownLatch releaseFetch)
+            throws InterruptedException {
+        final MetadataSignerI mockMetadataSigner = mock(MetadataSignerI.class);
+        final MetadataClockI mockMetadataClock = mock(MetadataClockI.class);
+        final ExecutorService executorService = Executors.newFixedThreadPool(callers);
+        try {
+            final List<Future<EidasMetadataParametersI>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executorService.submit(() -> fetcher.getEidasMetadata("https://url.be", mockMetadataSigner, mockMetadataClock)));
+            }
+            // all the callers but the one running the fetch are waiting for its outcome
+            assertTrue(joinedFetches.await(10, TimeUnit.SECONDS));
+            releaseFetch.countDown();
+            return results;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -17,8 +17,15 @@
  */
 package eu.eidas.auth.engine.metadata.impl;
 
+import eu.eidas.auth.engine.metadata.EidasMetadataParametersI;
+import eu.eidas.auth.engine.metadata.MetadataClockI;
+import eu.eidas.auth.engine.metadata.MetadataSignerI;
+import net.shibboleth.utilities.java.support.collection.LockableClassToInstanceMultiMap;
 import net.shibboleth.utilities.java.support.httpclient.TLSSocketFactory;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.junit.Test;
+import org.opensaml.saml.saml2.metadata.EntityDescriptor;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.net.ssl.HostnameVerifier;
@@ -26,12 +33,25 @@ import javax.net.ssl.HostnameVerifier;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Test class for {@link BaseMetadataFetcher}
  */
 public class BaseMetadataFetcherTest {
 
+    private static final String METADATA_URL = "https://url.be/metadata";
+
     /**
      * Test method for {@link BaseMetadataFetcher#newSslSocketFactory()}.
      * In this method, we check if newSslSocketFactory() method returns a correctly configured tlsSocketFactory object
@@ -56,6 +76,155 @@ public class BaseMetadataFetcherTest {
         assertArrayEquals(expectedTlsProtocols, (String[]) actualTlsProtocols);
     }
 
+    /**
+     * Test method for {@link BaseMetadataFetcher#getHttpClient()}.
+     * In this method, we check if the same http client is reused for successive fetches
+     *
+     * Must succeed.
+     */
+    @Test
+    public void testGetHttpClientIsReused() throws Exception {
+        BaseMetadataFetcher metadataFetcher = new DummyMetadataFetcher("TLSv1.2", "TLS_EMPTY_RENEGOTIATION_INFO_SCSV");
+
+        HttpClient httpClient = metadataFetcher.getHttpClient();
+
+        assertNotNull(httpClient);
+        assertSame(httpClient, metadataFetcher.getHttpClient());
+        metadataFetcher.destroy();
+    }
+
+    /**
+     * Test method for {@link BaseMetadataFetcher#resetHttpClient()}.
+     * In this method, we check if a replaced http client is closed only once the fetch still using it is over
+     *
+     * Must succeed.
+     */
+    @Test
+    public void testResetHttpClientWaitsForRunningFetch() throws Exception {
+        final CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+        final BaseMetadataFetcher metadataFetcher = spy(new DummyMetadataFetcher("TLSv1.2", "TLS_EMPTY_RENEGOTIATION_INFO_SCSV"));
+        doReturn(httpClient).doCallRealMethod().when(metadataFetcher).newHttpClient();
+        final BaseMetadataFetcher.RetirableHttpClient leasedHttpClient = metadataFetcher.acquireHttpClient();
+
+        metadataFetcher.setMaxConnectionsTotal(10);
+
+        assertNotSame(httpClient, metadataFetcher.getHttpClient());
+        verify(httpClient, never()).close();
+        leasedHttpClient.release();
+        verify(httpClient).close();
+        metadataFetcher.destroy();
+    }
+
+    /**
+     * Test method for {@link BaseMetadataFetcher#destroy()}.
+     * In this method, we check if the http client is closed when no fetch is using it
+     *
+     * Must succeed.
+     */
+    @Test
+    public void testDestroyClosesIdleHttpClient() throws Exception {
+        final CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+        final BaseMetadataFetcher metadataFetcher = spy(new DummyMetadataFetcher("TLSv1.2", "TLS_EMPTY_RENEGOTIATION_INFO_SCSV"));
+        doReturn(httpClient).when(metadataFetcher).newHttpClient();
+        metadataFetcher.acquireHttpClient().release();
+
+        metadataFetcher.destroy();
+
+        verify(httpClient).close();
+    }
+
+    /**
+     * Test method for
+     * {@link BaseMetadataFetcher#getEidasMetadata(String, MetadataSignerI, MetadataClockI)}
+     * when the server answers the conditional request that the metadata was not modified
+     * <p>
+     * Must succeed: the metadata verified on the first fetch is returned without being verified again.
+     */
+    @Test
+    public void getEidasMetadataNotModifiedReusesMetadata() throws Exception {
+        final MetadataHttpValidators validators = new MetadataHttpValidators("\"v1\"", null);
+        final BaseMetadataFetcher metadataFetcher = spy(new DummyMetadataFetcher("TLSv1.2", "TLS_EMPTY_RENEGOTIATION_INFO_SCSV"));
+        doReturn(entityDescriptor(validators)).when(metadataFetcher).fetchEntityDescriptor(METADATA_URL);
+        doReturn(null).when(metadataFetcher).fetchEntityDescriptor(eq(METADATA_URL), same(validators));
+        final MetadataSignerI metadataSigner = mock(MetadataSignerI.class);
+        final MetadataClockI metadataClock = mock(MetadataClockI.class);
+
+        final EidasMetadataParametersI fetchedMetadata = metadataFetcher.getEidasMetadata(METADATA_URL, metadataSigner, metadataClock);
+        final EidasMetadataParametersI reusedMetadata = metadataFetcher.getEidasMetadata(METADATA_URL, metadataSigner, metadataClock);
+
+        assertEquals(METADATA_URL, fetchedMetadata.getEntityID());
+        assertEquals(METADATA_URL, reusedMetadata.getEntityID());
+        verify(metadataFetcher, times(1)).fetchEntityDescriptor(METADATA_URL);
+        verify(metadataFetcher, times(1)).fetchEntityDescriptor(eq(METADATA_URL), same(validators));
+        verify(metadataSigner, times(1)).validateMetadataSignature(any(EntityDescriptor.class));
+    }
+
+    /**
+     * Test method for
+     * {@link BaseMetadataFetcher#getEidasMetadata(String, MetadataSignerI, MetadataClockI)}
+     * when the server answers the conditional request with a new metadata document
+     * <p>
+     * Must succeed: the new document from the conditional response is verified and its validators are used for the
+     * next refresh.
+     */
+    @Test
+    public void getEidasMetadataModifiedRefreshesMetadata() throws Exception {
+        final MetadataHttpValidators firstValidators = new MetadataHttpValidators("\"v1\"", null);
+        final MetadataHttpValidators secondValidators = new MetadataHttpValidators("\"v2\"", null);
+        final EntityDescriptor refreshedEntityDescriptor = entityDescriptor(secondValidators);
+        final BaseMetadataFetcher metadataFetcher = spy(new DummyMetadataFetcher("TLSv1.2", "TLS_EMPTY_RENEGOTIATION_INFO_SCSV"));
+        doReturn(entityDescriptor(firstValidators)).when(metadataFetcher).fetchEntityDescriptor(METADATA_URL);
+        doReturn(refreshedEntityDescriptor).when(metadataFetcher).fetchEntityDescriptor(eq(METADATA_URL), same(firstValidators));
+        doReturn(null).when(metadataFetcher).fetchEntityDescriptor(eq(METADATA_URL), same(secondValidators));
+        final MetadataSignerI metadataSigner = mock(MetadataSignerI.class);
+        final MetadataClockI metadataClock = mock(MetadataClockI.class);
+
+        metadataFetcher.getEidasMetadata(METADATA_URL, metadataSigner, metadataClock);
+        metadataFetcher.getEidasMetadata(METADATA_URL, metadataSigner, metadataClock);
+        metadataFetcher.getEidasMetadata(METADATA_URL, metadataSigner, metadataClock);
+
+        verify(metadataFetcher, times(1)).fetchEntityDescriptor(METADATA_URL);
+        verify(metadataFetcher, times(1)).fetchEntityDescriptor(eq(METADATA_URL), same(firstValidators));
+        verify(metadataFetcher, times(1)).fetchEntityDescriptor(eq(METADATA_URL), same(secondValidators));
+        verify(metadataSigner, times(1)).validateMetadataSignature(same(refreshedEntityDescriptor));
+        verify(metadataSigner, times(2)).validateMetadataSignature(any(EntityDescriptor.class));
+    }
+
+    /**
+     * Test method for
+     * {@link BaseMetadataFetcher#getEidasMetadata(String, MetadataSignerI, MetadataClockI)}
+     * when the metadata signer, hence the trust configuration, changes between two fetches
+     * <p>
+     * Must succeed: the metadata is fetched unconditionally and verified by the new signer.
+     */
+    @Test
+    public void getEidasMetadataOtherSignerVerifiesAgain() throws Exception {
+        final MetadataHttpValidators validators = new MetadataHttpValidators("\"v1\"", null);
+        final BaseMetadataFetcher metadataFetcher = spy(new DummyMetadataFetcher("TLSv1.2", "TLS_EMPTY_RENEGOTIATION_INFO_SCSV"));
+        doReturn(entityDescriptor(validators)).when(metadataFetcher).fetchEntityDescriptor(METADATA_URL);
+        doReturn(null).when(metadataFetcher).fetchEntityDescriptor(eq(METADATA_URL), same(validators));
+        final MetadataSignerI metadataSigner = mock(MetadataSignerI.class);
+        final MetadataSignerI reloadedMetadataSigner = mock(MetadataSignerI.class);
+        final MetadataClockI metadataClock = mock(MetadataClockI.class);
+
+        metadataFetcher.getEidasMetadata(METADATA_URL, metadataSigner, metadataClock);
+        metadataFetcher.getEidasMetadata(METADATA_URL, reloadedMetadataSigner, metadataClock);
+
+        verify(metadataFetcher, times(2)).fetchEntityDescriptor(METADATA_URL);
+        verify(metadataFetcher, never()).fetchEntityDescriptor(eq(METADATA_URL), same(validators));
+        verify(metadataSigner, times(1)).validateMetadataSignature(any(EntityDescriptor.class));
+        verify(reloadedMetadataSigner, times(1)).validateMetadataSignature(any(EntityDescriptor.class));
+    }
+
+    private static EntityDescriptor entityDescriptor(MetadataHttpValidators validators) {
+        final EntityDescriptor entityDescriptor = mock(EntityDescriptor.class);
+        doReturn(METADATA_URL).when(entityDescriptor).getEntityID();
+        final LockableClassToInstanceMultiMap<Object> objectMetadata = new LockableClassToInstanceMultiMap<>(true);
+        objectMetadata.put(validators);
+        doReturn(objectMetadata).when(entityDescriptor).getObjectMetadata();
+        return entityDescriptor;
+    }
+
     /**
      * Dummy extension of the {@link BaseMetadataFetcher} to test its predefined behavior
      */
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.engine.metadata.impl;
+
+import eu.eidas.auth.engine.metadata.IMetadataCachingService;
+import eu.eidas.auth.engine.metadata.MetadataClockI;
+import eu.eidas.auth.engine.metadata.MetadataSignerI;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test class for {@link CachingMetadataFetcher}
+ */
+public class CachingMetadataFetcherTest {
+
+    private final MetadataSignerI mockMetadataSigner = Mockito.mock(MetadataSignerI.class);
+
+    private final MetadataClockI mockMetadataClock = Mockito.mock(MetadataClockI.class);
+
+    private CachingMetadataFetcher cachingMetadataFetcher;
+
+    @Before
+    public void setUp() {
+        cachingMetadataFetcher = new CachingMetadataFetcher();
+        cachingMetadataFetcher.setCache(Mockito.mock(IMetadataCachingService.class));
+    }
+
+    /**
+     * Test method for {@link CachingMetadataFetcher#getCache(MetadataSignerI, MetadataClockI)}
+     * when called twice with the same signer and clock
+     * <p>
+     * Must return the same composed caching service.
+     */
+    @Test
+    public void getCacheReturnsSameInstance() {
+        final IMetadataCachingService cachingService = cachingMetadataFetcher.getCache(mockMetadataSigner, mockMetadataClock);
+
+        Assert.assertTrue(cachingService instanceof ValidityCheckingMetadataCachingService);
+        Assert.assertSame(cachingService, cachingMetadataFetcher.getCache(mockMetadataSigner, mockMetadataClock));
+    }
+
+    /**
+     * Test method for {@link CachingMetadataFetcher#getCache(MetadataSignerI, MetadataClockI)}
+     * when the signer changes
+     * <p>
+     * Must return a new composed caching service.
+     */
+    @Test
+    public void getCacheRebuiltWhenSignerChanges() {
+        final IMetadataCachingService cachingService = cachingMetadataFetcher.getCache(mockMetadataSigner, mockMetadataClock);
+
+        Assert.assertNotSame(cachingService,
+                cachingMetadataFetcher.getCache(Mockito.mock(MetadataSignerI.class), mockMetadataClock));
+    }
+
+    /**
+     * Test method for {@link CachingMetadataFetcher#getCache(MetadataSignerI, MetadataClockI)}
+     * when the configuration of the fetcher changes
+     * <p>
+     * Must return a new composed caching service.
+     */
+    @Test
+    public void getCacheRebuiltWhenConfigurationChanges() {
+        final IMetadataCachingService cachingService = cachingMetadataFetcher.getCache(mockMetadataSigner, mockMetadataClock);
+        cachingMetadataFetcher.setTrustedEidasMetadataUrls("https://trusted.eu/metadata");
+        final IMetadataCachingService trustedUrlsCachingService = cachingMetadataFetcher.getCache(mockMetadataSigner, mockMetadataClock);
+        cachingMetadataFetcher.setCache(Mockito.mock(IMetadataCachingService.class));
+
+        Assert.assertNotSame(cachingService, trustedUrlsCachingService);
+        Assert.assertNotSame(trustedUrlsCachingService, cachingMetadataFetcher.getCache(mockMetadataSigner, mockMetadataClock));
+    }
+}
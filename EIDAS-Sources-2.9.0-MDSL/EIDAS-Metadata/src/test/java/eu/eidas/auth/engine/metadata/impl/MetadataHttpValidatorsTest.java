@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.engine.metadata.impl;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link MetadataHttpValidators}
+ */
+public class MetadataHttpValidatorsTest {
+
+    private static final String ETAG = "\"5f3a-1c2b\"";
+
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    /**
+     * Test method for {@link MetadataHttpValidators#fromResponse(org.apache.http.HttpResponse)}
+     * when the response carries both an ETag and a Last-Modified header
+     * <p>
+     * Must succeed.
+     */
+    @Test
+    public void fromResponse() {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.addHeader(HttpHeaders.ETAG, ETAG);
+        response.addHeader(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED);
+
+        MetadataHttpValidators validators = MetadataHttpValidators.fromResponse(response);
+
+        assertEquals(ETAG, validators.getETag());
+        assertEquals(LAST_MODIFIED, validators.getLastModified());
+    }
+
+    /**
+     * Test method for {@link MetadataHttpValidators#fromResponse(org.apache.http.HttpResponse)}
+     * when the response has no validator
+     * <p>
+     * Must return null.
+     */
+    @Test
+    public void fromResponseWithoutValidators() {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+
+        assertNull(MetadataHttpValidators.fromResponse(response));
+    }
+
+    /**
+     * Test method for {@link MetadataHttpValidators#fromResponse(org.apache.http.HttpResponse)}
+     * when the response is not successful
+     * <p>
+     * Must return null.
+     */
+    @Test
+    public void fromResponseNotSuccessful() {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_FOUND, "Not Found");
+        response.addHeader(HttpHeaders.ETAG, ETAG);
+
+        assertNull(MetadataHttpValidators.fromResponse(response));
+    }
+
+    /**
+     * Test method for {@link MetadataHttpValidators#applyTo(org.apache.http.HttpRequest)}
+     * <p>
+     * Must make the request conditional on both validators.
+     */
+    @Test
+    public void applyTo() {
+        HttpGet request = new HttpGet("https://url.be/metadata");
+
+        new MetadataHttpValidators(ETAG, LAST_MODIFIED).applyTo(request);
+
+        assertEquals(ETAG, request.getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+        assertEquals(LAST_MODIFIED, request.getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE).getValue());
+    }
+
+    /**
+     * Test method for {@link MetadataHttpValidators#applyTo(org.apache.http.HttpRequest)}
+     * when only the ETag is known
+     * <p>
+     * Must not send an If-Modified-Since header.
+     */
+    @Test
+    public void applyToWithETagOnly() {
+        HttpGet request = new HttpGet("https://url.be/metadata");
+
+        new MetadataHttpValidators(ETAG, null).applyTo(request);
+
+        assertEquals(ETAG, request.getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+        assertFalse(request.containsHeader(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+}
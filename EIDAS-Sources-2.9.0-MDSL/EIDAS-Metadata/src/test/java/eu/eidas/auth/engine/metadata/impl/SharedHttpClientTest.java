@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.engine.metadata.impl;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link SharedHttpClient}
+ */
+public class SharedHttpClientTest {
+
+    private static final String ETAG = "\"5f3a-1c2b\"";
+
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    /**
+     * Test method for {@link SharedHttpClient#execute(HttpUriRequest, HttpContext)}
+     * when the validators of a previous retrieval are known and the server answers that the document was not modified
+     * <p>
+     * Must send a conditional request and report the document as not modified.
+     */
+    @Test
+    public void executeConditionalNotModified() throws Exception {
+        final HttpClient delegate = mock(HttpClient.class);
+        when(delegate.execute(any(HttpUriRequest.class), any(HttpContext.class)))
+                .thenReturn(new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_MODIFIED, "Not Modified"));
+        final SharedHttpClient sharedHttpClient = new SharedHttpClient(delegate, new MetadataHttpValidators(ETAG, LAST_MODIFIED));
+
+        sharedHttpClient.execute(new HttpGet("https://url.be/metadata"), mock(HttpContext.class));
+
+        final ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+        verify(delegate).execute(request.capture(), any(HttpContext.class));
+        assertEquals(ETAG, request.getValue().getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+        assertEquals(LAST_MODIFIED, request.getValue().getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE).getValue());
+        assertTrue(sharedHttpClient.isNotModified());
+        assertNull(sharedHttpClient.getResponseValidators());
+    }
+
+    /**
+     * Test method for {@link SharedHttpClient#execute(HttpUriRequest, HttpContext)}
+     * when the server answers the conditional request with a new document
+     * <p>
+     * Must hand the response over and record its validators for the next retrieval.
+     */
+    @Test
+    public void executeConditionalModified() throws Exception {
+        final HttpClient delegate = mock(HttpClient.class);
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.addHeader(HttpHeaders.ETAG, "\"5f3b-0a1d\"");
+        when(delegate.execute(any(HttpUriRequest.class), any(HttpContext.class))).thenReturn(response);
+        final SharedHttpClient sharedHttpClient = new SharedHttpClient(delegate, new MetadataHttpValidators(ETAG, null));
+
+        assertSame(response, sharedHttpClient.execute(new HttpGet("https://url.be/metadata"), mock(HttpContext.class)));
+
+        assertFalse(sharedHttpClient.isNotModified());
+        assertEquals("\"5f3b-0a1d\"", sharedHttpClient.getResponseValidators().getETag());
+    }
+
+    /**
+     * Test method for {@link SharedHttpClient#execute(HttpUriRequest, HttpContext)}
+     * when no validators are known
+     * <p>
+     * Must send an unconditional request.
+     */
+    @Test
+    public void executeUnconditional() throws Exception {
+        final HttpClient delegate = mock(HttpClient.class);
+        when(delegate.execute(any(HttpUriRequest.class), any(HttpContext.class)))
+                .thenReturn(new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK"));
+        final SharedHttpClient sharedHttpClient = new SharedHttpClient(delegate);
+        final HttpGet request = new HttpGet("https://url.be/metadata");
+
+        sharedHttpClient.execute(request, mock(HttpContext.class));
+
+        assertFalse(request.containsHeader(HttpHeaders.IF_NONE_MATCH));
+        assertFalse(request.containsHeader(HttpHeaders.IF_MODIFIED_SINCE));
+        assertFalse(sharedHttpClient.isNotModified());
+    }
+}
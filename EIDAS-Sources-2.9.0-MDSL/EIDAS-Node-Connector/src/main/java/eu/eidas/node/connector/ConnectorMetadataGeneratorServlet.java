@@ -18,22 +18,39 @@
 
 package eu.eidas.node.connector;
 
+import eu.eidas.auth.engine.ProtocolEngineI;
+import eu.eidas.engine.exceptions.EIDASSAMLEngineException;
 import eu.eidas.node.AbstractNodeServlet;
 import eu.eidas.node.ConnectorBeanNames;
 import eu.eidas.node.utils.EidasNodeMetadataGenerator;
 import eu.eidas.node.utils.PropertiesUtil;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
 
 import static eu.eidas.node.BeanProvider.getBean;
 
 /**
  * generates metadata used to communicate with the Connector.
+ * <p>
+ * The signed metadata is kept and served again, with an ETag allowing conditional requests, until half of its
+ * validity period has elapsed or until the configuration or the signing certificates change. A copy served from the
+ * cache, or kept by a peer for the advertised max-age, is thus still valid for at least half of its validity period.
  */
 @SuppressWarnings("squid:S1989") // due to the code uses correlation maps, not http sessions
 public class ConnectorMetadataGeneratorServlet extends AbstractNodeServlet {
@@ -42,6 +59,18 @@ public class ConnectorMetadataGeneratorServlet extends AbstractNodeServlet {
      */
     private static final Logger LOG = LoggerFactory.getLogger(ConnectorMetadataGeneratorServlet.class.getName());
 
+    private static final String HEADER_ETAG = "ETag";
+
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+
+    private final transient Object generationLock = new Object();
+
+    private transient volatile CachedMetadata cachedMetadata;
+
+    private transient Clock clock = Clock.systemUTC();
+
     @Override
     protected Logger getLogger() {
         return LOG;
@@ -52,13 +81,120 @@ public class ConnectorMetadataGeneratorServlet extends AbstractNodeServlet {
         String generatorName = ConnectorBeanNames.CONNECTOR_METADATA_GENERATOR.toString();
         EidasNodeMetadataGenerator generator = getBean(EidasNodeMetadataGenerator.class, generatorName);
         if(PropertiesUtil.isConnectorMetadataEnabled()) {
-            response.setContentType("text/xml");
-            response.setCharacterEncoding("UTF-8");
             String beanName = ConnectorBeanNames.EIDAS_CONNECTOR_CONTROLLER.toString();
             ConnectorControllerService controllerService = getBean( ConnectorControllerService.class, beanName );
-            response.getWriter().print(generator.generateConnectorMetadata(controllerService.getConnectorService().getSamlService().getSamlEngine()));
+            ProtocolEngineI protocolEngine = controllerService.getConnectorService().getSamlService().getSamlEngine();
+            CachedMetadata metadata = getMetadata(generator, protocolEngine);
+            if (null != metadata.eTag) {
+                response.setHeader(HEADER_ETAG, metadata.eTag);
+                long maxAge = Math.max(0L, Duration.between(clock.instant(), metadata.expiry).getSeconds());
+                response.setHeader(HEADER_CACHE_CONTROL, "public, max-age=" + maxAge);
+                if (matches(request.getHeader(HEADER_IF_NONE_MATCH), metadata.eTag)) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            response.setContentType("text/xml");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().print(metadata.metadata);
         }else{
             response.sendError(HttpServletResponse.SC_NOT_FOUND);
         }
     }
+
+    /**
+     * Returns the cached metadata when it is still fresh and was generated with the current configuration, otherwise
+     * generates and signs it again. Concurrent requests wait for a single generation.
+     */
+    @Nonnull
+    private CachedMetadata getMetadata(EidasNodeMetadataGenerator generator, ProtocolEngineI protocolEngine) {
+        List<Object> fingerprint = getFingerprint(generator, protocolEngine);
+        CachedMetadata metadata = cachedMetadata;
+        if (isFresh(metadata, fingerprint)) {
+            return metadata;
+        }
+        synchronized (generationLock) {
+            metadata = cachedMetadata;
+            if (isFresh(metadata, fingerprint)) {
+                return metadata;
+            }
+            metadata = generate(generator, protocolEngine, fingerprint);
+            cachedMetadata = null == metadata.eTag ? null : metadata;
+            return metadata;
+        }
+    }
+
+    private boolean isFresh(@Nullable CachedMetadata metadata, @Nullable List<Object> fingerprint) {
+        return null != metadata && null != fingerprint && fingerprint.equals(metadata.fingerprint)
+                && clock.instant().isBefore(metadata.expiry);
+    }
+
+    @Nonnull
+    private CachedMetadata generate(EidasNodeMetadataGenerator generator, ProtocolEngineI protocolEngine,
+                                    @Nullable List<Object> fingerprint) {
+        Instant generationTime = clock.instant();
+        String metadata = generator.generateConnectorMetadata(protocolEngine);
+        long cacheDuration = generator.getValidityDuration() / 2;
+        if (null == metadata || EidasNodeMetadataGenerator.INVALID_METADATA.equals(metadata)
+                || null == fingerprint || cacheDuration <= 0) {
+            return new CachedMetadata(metadata, null, generationTime, null);
+        }
+        String eTag = '"' + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(DigestUtils.sha256(metadata.getBytes(StandardCharsets.UTF_8))) + '"';
+        return new CachedMetadata(metadata, eTag, generationTime.plusSeconds(cacheDuration), fingerprint);
+    }
+
+    /**
+     * The metadata depends on the node configuration and is signed with the signing key of the protocol engine, so
+     * it is generated again as soon as one of them is reloaded.
+     */
+    @Nullable
+    private static List<Object> getFingerprint(EidasNodeMetadataGenerator generator, ProtocolEngineI protocolEngine) {
+        try {
+            Properties nodeProps = generator.getNodeProps();
+            return Arrays.asList(protocolEngine, protocolEngine.getSigningCertificates(),
+                    null == nodeProps ? 0 : nodeProps.hashCode());
+        } catch (EIDASSAMLEngineException e) {
+            LOG.debug("Unable to get the signing certificates, the metadata is not cached", e);
+            return null;
+        }
+    }
+
+    private static boolean matches(@Nullable String ifNoneMatch, @Nonnull String eTag) {
+        if (null == ifNoneMatch) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || eTag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void setClock(@Nonnull Clock clock) {
+        this.clock = clock;
+    }
+
+    private static final class CachedMetadata {
+
+        private final String metadata;
+
+        private final String eTag;
+
+        private final Instant expiry;
+
+        private final List<Object> fingerprint;
+
+        private CachedMetadata(String metadata, String eTag, Instant expiry, List<Object> fingerprint) {
+            this.metadata = metadata;
+            this.eTag = eTag;
+            this.expiry = expiry;
+            this.fingerprint = fingerprint;
+        }
+    }
 }
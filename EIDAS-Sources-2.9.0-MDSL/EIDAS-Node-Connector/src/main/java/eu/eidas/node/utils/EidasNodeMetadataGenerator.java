@@ -76,7 +76,10 @@ public class EidasNodeMetadataGenerator {
     private AUCONNECTORUtil nodeUtil;
     private long validityDuration;
 
-    private static final String INVALID_METADATA = "invalid metadata";
+    /**
+     * Returned instead of the metadata when it cannot be generated.
+     */
+    public static final String INVALID_METADATA = "invalid metadata";
 
     private ProtocolEngineFactory nodeProtocolEngineFactory;
 
@@ -274,6 +277,13 @@ public class EidasNodeMetadataGenerator {
         this.assertionUrl = assertionUrl;
     }
 
+    /**
+     * @return the validity of the generated metadata in seconds
+     */
+    public long getValidityDuration() {
+        return validityDuration;
+    }
+
     public void setValidityDuration(long validityDuration) {
         this.validityDuration = validityDuration;
     }
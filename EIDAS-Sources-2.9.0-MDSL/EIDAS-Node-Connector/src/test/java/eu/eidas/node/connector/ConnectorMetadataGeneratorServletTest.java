@@ -35,6 +35,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.context.ApplicationContext;
 
@@ -42,6 +43,10 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Properties;
 
 /**
@@ -50,6 +55,10 @@ import java.util.Properties;
 @RunWith(MockitoJUnitRunner.class)
 public class ConnectorMetadataGeneratorServletTest {
 
+    private static final String METADATA = "<md:EntityDescriptor/>";
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
     private ConnectorMetadataGeneratorServlet connectorMetadataGeneratorServlet;
 
     @Mock
@@ -163,6 +172,101 @@ public class ConnectorMetadataGeneratorServletTest {
                 .print(expectedResult);
     }
 
+    /**
+     * Test method for {@link ConnectorMetadataGeneratorServlet#doGet(HttpServletRequest, HttpServletResponse)}
+     * When the metadata is requested twice within half of its validity period
+     * <p>
+     * Must generate and sign the metadata only once and serve it with an ETag.
+     */
+    @Test
+    public void testMetadataGenerationRequestCached() throws Exception {
+        ProtocolEngineI mockedProtocolEngine = initCacheableMetadata(METADATA);
+
+        HttpServletResponse firstResponse = doGetWithWriter(mockHttpServletRequest());
+        HttpServletResponse secondResponse = doGetWithWriter(mockHttpServletRequest());
+
+        Mockito.verify(metadataGenerator, Mockito.times(1)).generateConnectorMetadata(mockedProtocolEngine);
+        Mockito.verify(firstResponse).setHeader(Mockito.eq("ETag"), Mockito.anyString());
+        Mockito.verify(firstResponse).setHeader("Cache-Control", "public, max-age=1800");
+        Mockito.verify(secondResponse.getWriter()).print(METADATA);
+    }
+
+    /**
+     * Test method for {@link ConnectorMetadataGeneratorServlet#doGet(HttpServletRequest, HttpServletResponse)}
+     * When the request is conditional on the ETag of the cached metadata
+     * <p>
+     * Must answer 304 without body.
+     */
+    @Test
+    public void testMetadataGenerationRequestNotModified() throws Exception {
+        initCacheableMetadata(METADATA);
+
+        HttpServletResponse firstResponse = doGetWithWriter(mockHttpServletRequest());
+        ArgumentCaptor<String> eTagCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(firstResponse).setHeader(Mockito.eq("ETag"), eTagCaptor.capture());
+
+        HttpServletRequest conditionalRequest = mockHttpServletRequest();
+        Mockito.when(conditionalRequest.getHeader("If-None-Match")).thenReturn(eTagCaptor.getValue());
+        HttpServletResponse conditionalResponse = mockHttpServletResponse();
+        connectorMetadataGeneratorServlet.doGet(conditionalRequest, conditionalResponse);
+
+        Mockito.verify(conditionalResponse).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        Mockito.verify(conditionalResponse, Mockito.never()).getWriter();
+    }
+
+    /**
+     * Test method for {@link ConnectorMetadataGeneratorServlet#doGet(HttpServletRequest, HttpServletResponse)}
+     * When half of the validity period of the cached metadata has elapsed
+     * <p>
+     * Must generate and sign the metadata again.
+     */
+    @Test
+    public void testMetadataGenerationRequestCacheExpired() throws Exception {
+        ProtocolEngineI mockedProtocolEngine = initCacheableMetadata(METADATA);
+
+        doGetWithWriter(mockHttpServletRequest());
+        connectorMetadataGeneratorServlet.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(30)), ZoneOffset.UTC));
+        doGetWithWriter(mockHttpServletRequest());
+
+        Mockito.verify(metadataGenerator, Mockito.times(2)).generateConnectorMetadata(mockedProtocolEngine);
+    }
+
+    /**
+     * Test method for {@link ConnectorMetadataGeneratorServlet#doGet(HttpServletRequest, HttpServletResponse)}
+     * When the metadata could not be generated
+     * <p>
+     * Must not cache the invalid metadata.
+     */
+    @Test
+    public void testMetadataGenerationRequestInvalidMetadataNotCached() throws Exception {
+        ProtocolEngineI mockedProtocolEngine = initCacheableMetadata(EidasNodeMetadataGenerator.INVALID_METADATA);
+
+        HttpServletResponse firstResponse = doGetWithWriter(mockHttpServletRequest());
+        doGetWithWriter(mockHttpServletRequest());
+
+        Mockito.verify(metadataGenerator, Mockito.times(2)).generateConnectorMetadata(mockedProtocolEngine);
+        Mockito.verify(firstResponse, Mockito.never()).setHeader(Mockito.eq("ETag"), Mockito.anyString());
+    }
+
+    private ProtocolEngineI initCacheableMetadata(String metadata) {
+        Mockito.when(mockProperties.getProperty(EidasParameterKeys.METADATA_ACTIVE.toString()))
+                .thenReturn("true");
+        ProtocolEngineI mockedProtocolEngine = initConnectorControllerMock();
+        Mockito.when(metadataGenerator.generateConnectorMetadata(mockedProtocolEngine))
+                .thenReturn(metadata);
+        Mockito.when(metadataGenerator.getValidityDuration()).thenReturn(3600L);
+        connectorMetadataGeneratorServlet.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        return mockedProtocolEngine;
+    }
+
+    private HttpServletResponse doGetWithWriter(HttpServletRequest httpServletRequest) throws Exception {
+        HttpServletResponse httpServletResponse = mockHttpServletResponse();
+        PrintWriter mockWriter = Mockito.mock(PrintWriter.class);
+        Mockito.when(httpServletResponse.getWriter()).thenReturn(mockWriter);
+        connectorMetadataGeneratorServlet.doGet(httpServletRequest, httpServletResponse);
+        return httpServletResponse;
+    }
+
     private HttpServletRequest mockHttpServletRequest() {
         HttpServletRequest httpServletRequest = Mockito.mock(HttpServletRequest.class);
         return httpServletRequest;
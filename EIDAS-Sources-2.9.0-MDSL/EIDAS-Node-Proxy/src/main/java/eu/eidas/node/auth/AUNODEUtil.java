@@ -82,6 +82,27 @@ public abstract class AUNODEUtil {
         return Boolean.TRUE;
     }
 
+    /**
+     * Method used to reject a replayed request/response before validating it, without recording it.
+     * <p>
+     * This is only a cheap pre-check: the message is recorded by {@link #checkNotPresentInCache(String, String)}
+     * once it has been validated, so that an invalid message cannot poison the cache.
+     *
+     * @param messageId          the SAMLID (uuid) to look up
+     * @param citizenCountryCode the citizen country code
+     * @return true if the request/response has already been processed by the system
+     */
+    public boolean isPresentInCache(final String messageId, final String citizenCountryCode) {
+        if (antiReplayCache == null || null == messageId) {
+            return false;
+        }
+        final boolean isReplayAttack = antiReplayCache.containsKey(citizenCountryCode + "/" + messageId);
+        if (isReplayAttack) {
+            LOG.warn(LoggingMarkerMDC.SECURITY_WARNING, "Replay attack : Checking in Eidas Node antiReplayCache for samlId " + messageId + " before validation ! ");
+        }
+        return isReplayAttack;
+    }
+
     /**
      * Method used to check if the request/response has not already been processed (replay attack).
      * Checked response type is {@link eu.eidas.auth.commons.light.impl.LightResponse}
@@ -34,6 +34,7 @@ import eu.eidas.auth.commons.protocol.eidas.IEidasAuthenticationRequest;
 import eu.eidas.auth.commons.protocol.eidas.SpType;
 import eu.eidas.auth.commons.protocol.eidas.impl.EidasAuthenticationRequest;
 import eu.eidas.auth.commons.protocol.impl.AuthenticationResponse;
+import eu.eidas.auth.commons.xml.DocumentBuilderFactoryUtil;
 import eu.eidas.auth.engine.ProtocolEngineFactory;
 import eu.eidas.auth.engine.ProtocolEngineI;
 import eu.eidas.auth.engine.metadata.EidasMetadataParametersI;
@@ -205,6 +206,9 @@ public class AUSERVICESAML implements ISERVICESAMLService {
                                                           String ipUserAddress,
                                                           String relayState) {
         try {
+            // rejects a replayed request before the expensive validation of its signature
+            checkAntiReplayBeforeValidation(samlObj);
+
             LOG.trace("Validating the SAML token");
             // validates SAML Token
             final ProtocolEngineI engine = getSamlEngine();
@@ -366,6 +370,22 @@ public class AUSERVICESAML implements ISERVICESAMLService {
                 EidasErrors.get(EidasErrorKey.SAML_ENGINE_NO_METADATA.errorMessage()));
     }
 
+    /**
+     * Looks up the ID of the unvalidated request in the anti-replay cache, without recording it. The citizen country
+     * code of the unmarshalled request is always the country code of this ProxyService.
+     *
+     * @param samlObj the SAML request
+     */
+    private void checkAntiReplayBeforeValidation(byte[] samlObj) {
+        final String requestId = DocumentBuilderFactoryUtil.getRootElementAttribute(samlObj, "ID");
+        if (serviceUtil.isPresentInCache(requestId, countryCode)) {
+            throw new ProxyServiceError(
+                    EidasErrors.get(EidasErrorKey.SPROVIDER_SELECTOR_INVALID_SAML.errorCode()),
+                    EidasErrors.get(EidasErrorKey.SPROVIDER_SELECTOR_INVALID_SAML.errorMessage()),
+                    "Eidas Audit");
+        }
+    }
+
     private void checkAntiReplay(byte[] samlObj, IAuthenticationRequest authnRequest) {
         if (!serviceUtil.checkNotPresentInCache(authnRequest.getId(), authnRequest.getCitizenCountryCode())) {
             throw new ProxyServiceError(
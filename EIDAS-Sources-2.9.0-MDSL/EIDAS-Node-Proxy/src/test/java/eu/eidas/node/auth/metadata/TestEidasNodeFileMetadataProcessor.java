@@ -25,6 +25,7 @@ import eu.eidas.auth.engine.ProtocolEngineFactory;
 import eu.eidas.auth.engine.ProtocolEngineI;
 import eu.eidas.auth.engine.core.eidas.EidasProtocolProcessor;
 import eu.eidas.auth.engine.metadata.EntityDescriptorContainer;
+import eu.eidas.auth.engine.metadata.IStaticMetadataChangeListener;
 import eu.eidas.auth.engine.metadata.MetadataSignerI;
 import eu.eidas.auth.engine.metadata.MetadataUtil;
 import eu.eidas.auth.engine.metadata.impl.FileMetadataLoader;
@@ -40,6 +41,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
 import org.opensaml.core.xml.XMLObjectBuilderFactory;
 import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
 import org.opensaml.saml.saml2.metadata.EntitiesDescriptor;
@@ -76,9 +79,14 @@ public class TestEidasNodeFileMetadataProcessor {
     private static final String FILEREPO_DIR_WRITE4="target/test/EntityDescriptors4/";
     private static final String FILEREPO_DIR_READ_JAVACHAR_ID="src/test/resources/EntityDescriptorsJavaCharsInID/";
     private static final String FILEREPO_DIR_WRITE_JAVACHAR_ID="target/test/EntityDescriptorsJavaCharsInID/";
+    private static final String FILEREPO_DIR_WRITE_WATCHED="target/test/EntityDescriptorsWatched/";
+    private static final String FILE_PATH_WRITE_WATCHED="target/test/EntityDescriptorsWatched/test.xml";
+    private static final String FILEREPO_DIR_WRITE_WATCHED_FAILING="target/test/EntityDescriptorsWatchedFailing/";
+    private static final String FILE_PATH_WRITE_WATCHED_FAILING="target/test/EntityDescriptorsWatchedFailing/test.xml";
 
     private static final String ENTITY_ID_1="http://peps:8888/PEPS/SPEPSMetadata";
     private static final String ENTITY_ID_2="eumiddleware";
+    private static final String ENTITY_ID_UPD="http://peps1:8888/PEPS/SPEPSMetadata";
 
     private ProtocolEngineI getEngine() {
         ProtocolEngineI engine = null;
@@ -103,6 +111,8 @@ public class TestEidasNodeFileMetadataProcessor {
         initWorkFolder(FILEREPO_DIR_READ_COMBO, FILEREPO_DIR_WRITE3);
         initWorkFolder(FILEREPO_DIR_READ_COMBO_4, FILEREPO_DIR_WRITE4);
         initWorkFolder(FILEREPO_DIR_READ_JAVACHAR_ID, FILEREPO_DIR_WRITE_JAVACHAR_ID);
+        initWorkFolder(FILEREPO_DIR_READ, FILEREPO_DIR_WRITE_WATCHED);
+        initWorkFolder(FILEREPO_DIR_READ, FILEREPO_DIR_WRITE_WATCHED_FAILING);
         RecommendedSecurityProviders.setupRecommendedSecurityProviders();
         OpenSamlHelper.initialize();
     }
@@ -121,6 +131,8 @@ public class TestEidasNodeFileMetadataProcessor {
         FileSystemUtils.deleteRecursively(new File(FILEREPO_DIR_WRITE4));
         FileSystemUtils.deleteRecursively(new File(FILEREPO_DIR_WRITE_JAVACHAR_ID));
         FileSystemUtils.deleteRecursively(new File(FILEREPO_DIR_WRITE_EMPTY));
+        FileSystemUtils.deleteRecursively(new File(FILEREPO_DIR_WRITE_WATCHED));
+        FileSystemUtils.deleteRecursively(new File(FILEREPO_DIR_WRITE_WATCHED_FAILING));
     }
 
     /**
@@ -181,6 +193,75 @@ public class TestEidasNodeFileMetadataProcessor {
         Assert.assertTrue(ed2.isValid());
     }
 
+    /**
+     * Test method for
+     * {@link FileMetadataLoader#getEntityDescriptorContainer(String)}
+     * <p>
+     * Must succeed.
+     */
+    @Test
+    public void testGetEntityDescriptorContainer() throws Exception {
+        FileMetadataLoader processor=new FileMetadataLoader();
+        processor.setRepositoryPath(FILEREPO_DIR_WRITE1);
+
+        EntityDescriptorContainer container = processor.getEntityDescriptorContainer(ENTITY_ID_2);
+
+        Assert.assertNotNull(container);
+        Assert.assertEquals(ENTITY_ID_2, container.getEntityDescriptors().get(0).getEntityID());
+        Assert.assertNull(processor.getEntityDescriptorContainer("http://unknown/metadata"));
+        processor.destroy();
+    }
+
+    /**
+     * Test method for
+     * {@link FileMetadataLoader#getEntityDescriptorContainer(String)}
+     * When a file is added to the watched directory
+     * <p>
+     * Must succeed: the index is updated and the listeners are notified.
+     */
+    @Test
+    public void testWatchedDirectoryUpdatesIndex() throws Exception {
+        FileMetadataLoader processor=new FileMetadataLoader();
+        processor.setRepositoryPath(FILEREPO_DIR_WRITE_WATCHED);
+        IStaticMetadataChangeListener listener = Mockito.mock(IStaticMetadataChangeListener.class);
+        processor.addListenerContentChanged(listener);
+        Assert.assertNull(processor.getEntityDescriptorContainer(ENTITY_ID_UPD));
+
+        Files.copy(Paths.get(FILE_PATH_READ_UPD), Paths.get(FILE_PATH_WRITE_WATCHED), REPLACE_EXISTING);
+
+        Mockito.verify(listener, Mockito.timeout(15000).atLeastOnce())
+                .add(ArgumentMatchers.argThat(ed -> ENTITY_ID_UPD.equals(ed.getEntityID())), ArgumentMatchers.isNull());
+        Assert.assertNotNull(processor.getEntityDescriptorContainer(ENTITY_ID_UPD));
+        processor.destroy();
+    }
+
+    /**
+     * Test method for
+     * {@link FileMetadataLoader#getEntityDescriptorContainer(String)}
+     * When a listener fails on a change of the watched directory
+     * <p>
+     * Must succeed: the directory is still watched and the next changes are notified.
+     */
+    @Test
+    public void testWatchedDirectorySurvivesFailingListener() throws Exception {
+        FileMetadataLoader processor=new FileMetadataLoader();
+        processor.setRepositoryPath(FILEREPO_DIR_WRITE_WATCHED_FAILING);
+        IStaticMetadataChangeListener listener = Mockito.mock(IStaticMetadataChangeListener.class);
+        Mockito.doThrow(new IllegalStateException("listener failure")).when(listener)
+                .add(ArgumentMatchers.any(), ArgumentMatchers.any());
+        processor.addListenerContentChanged(listener);
+        Assert.assertNull(processor.getEntityDescriptorContainer(ENTITY_ID_UPD));
+
+        Files.copy(Paths.get(FILE_PATH_READ_UPD), Paths.get(FILE_PATH_WRITE_WATCHED_FAILING), REPLACE_EXISTING);
+        Mockito.verify(listener, Mockito.timeout(15000).atLeastOnce())
+                .add(ArgumentMatchers.argThat(ed -> ENTITY_ID_UPD.equals(ed.getEntityID())), ArgumentMatchers.isNull());
+
+        Files.delete(Paths.get(FILE_PATH_WRITE_WATCHED_FAILING));
+        Mockito.verify(listener, Mockito.timeout(15000).atLeastOnce()).remove(ENTITY_ID_UPD);
+        Assert.assertNull(processor.getEntityDescriptorContainer(ENTITY_ID_UPD));
+        processor.destroy();
+    }
+
     /**
      * Test method for
      * {@link FileMetadataLoader#getEntityDescriptors()}
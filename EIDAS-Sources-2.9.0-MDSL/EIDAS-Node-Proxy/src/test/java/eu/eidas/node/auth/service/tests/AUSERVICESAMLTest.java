@@ -543,6 +543,24 @@ public class AUSERVICESAMLTest {
         auServiceSaml.processConnectorRequest("POST", saml, TestingConstants.USER_IP_CONS.toString(), "relayState");
     }
 
+    /**
+     * Test method for {@link AUSERVICESAML#processConnectorRequest(String, byte[], String, String)}.
+     * When the ID of the saml request is already in the anti-replay cache
+     * <p>
+     * Must fail before validating the saml request.
+     */
+    @Test
+    public void processConnectorRequestReplayedRejectedBeforeValidation() throws Exception {
+        Mockito.when(mockAuServiceUtil.isPresentInCache("_d048cb317813845b32a7a2b75f3bad59", "EU")).thenReturn(true);
+
+        try {
+            auServiceSaml.processConnectorRequest("POST", saml, TestingConstants.USER_IP_CONS.toString(), "relayState");
+            Assert.fail("ProxyServiceError expected");
+        } catch (ProxyServiceError e) {
+            Mockito.verifyNoInteractions(mockProtocolEngineFactory);
+        }
+    }
+
     /**
      * Test method for {@link ProtocolEngine#generateResponseErrorMessage(IAuthenticationRequest, IAuthenticationResponse, String)}
      * which is called in {@link AUSERVICESAML#generateResponseErrorMessage(IAuthenticationRequest, ProtocolEngineI, AuthenticationResponse.Builder, String)}
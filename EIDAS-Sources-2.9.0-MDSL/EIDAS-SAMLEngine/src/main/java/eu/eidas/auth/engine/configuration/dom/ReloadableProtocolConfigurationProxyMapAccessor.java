@@ -54,31 +54,35 @@ final class ReloadableProtocolConfigurationProxyMapAccessor
     @Nonnull
     private final SingletonAccessor<Map<String, ProtocolEngineConfiguration>> fileAccessor;
 
+    /**
+     * The proxies built for the last loaded configuration, replaced as a whole when the configuration is reloaded.
+     */
     @Nonnull
-    private final Map<String, ProtocolEngineConfiguration> cachedMap;
-
-    @Nonnull
-    private final Map<String, ProtocolEngineConfiguration> proxyMap;
+    private volatile ProxyMapSnapshot snapshot;
 
     ReloadableProtocolConfigurationProxyMapAccessor(
             @Nonnull SingletonAccessor<Map<String, ProtocolEngineConfiguration>> fileAccessor) {
         this.fileAccessor = fileAccessor;
+        Map<String, ProtocolEngineConfiguration> cachedMap;
         try {
             cachedMap = fileAccessor.get();
         } catch (IOException e) {
             throw new IllegalStateException("Unable to load configuration: " + e, e);
         }
-        proxyMap = buildProxyMap(cachedMap, fileAccessor);
+        snapshot = new ProxyMapSnapshot(cachedMap, buildProxyMap(cachedMap, fileAccessor));
     }
 
     @Nullable
     @Override
     public Map<String, ProtocolEngineConfiguration> get() throws IOException {
         Map<String, ProtocolEngineConfiguration> currentValue = fileAccessor.get();
-        if (currentValue == cachedMap) {
-            return proxyMap;
+        ProxyMapSnapshot currentSnapshot = snapshot;
+        if (currentValue == currentSnapshot.cachedMap) {
+            return currentSnapshot.proxyMap;
         }
-        return buildProxyMap(currentValue, fileAccessor);
+        ProxyMapSnapshot newSnapshot = new ProxyMapSnapshot(currentValue, buildProxyMap(currentValue, fileAccessor));
+        snapshot = newSnapshot;
+        return newSnapshot.proxyMap;
     }
 
     @Override
@@ -86,4 +90,19 @@ final class ReloadableProtocolConfigurationProxyMapAccessor
             throws UnsupportedOperationException {
         throw new UnsupportedOperationException();
     }
+
+    private static final class ProxyMapSnapshot {
+
+        @Nonnull
+        private final Map<String, ProtocolEngineConfiguration> cachedMap;
+
+        @Nonnull
+        private final Map<String, ProtocolEngineConfiguration> proxyMap;
+
+        private ProxyMapSnapshot(@Nonnull Map<String, ProtocolEngineConfiguration> cachedMap,
+                                 @Nonnull Map<String, ProtocolEngineConfiguration> proxyMap) {
+            this.cachedMap = cachedMap;
+            this.proxyMap = proxyMap;
+        }
+    }
 }
@@ -30,7 +30,6 @@ import eu.eidas.auth.engine.xml.opensaml.SAMLEngineUtils;
 import eu.eidas.engine.exceptions.EIDASMetadataException;
 import eu.eidas.engine.exceptions.EIDASSAMLEngineException;
 import eu.eidas.util.Preconditions;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
@@ -71,18 +70,16 @@ import java.security.AlgorithmParameters;
 import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.security.spec.InvalidParameterSpecException;
 import java.security.spec.PSSParameterSpec;
-import java.util.Base64;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static eu.eidas.auth.engine.core.eidas.spec.EidasSignatureConstants.DEFAULT_DIGEST_ALGORITHM;
 import static eu.eidas.auth.engine.core.eidas.spec.EidasSignatureConstants.MIN_EC_KEY_LENGTH;
@@ -105,6 +102,11 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
      */
     private static final Logger LOG = LoggerFactory.getLogger(AbstractProtocolSigner.class);
 
+    /**
+     * The length in bits of the hash algorithms already used to sign a certificate.
+     */
+    private static final Map<String, Integer> HASH_ALGORITHM_BITS_LENGTHS = new ConcurrentHashMap<>();
+
     private SignatureConfiguration signatureConfiguration;
 
     private final SigningContext requestSigningContext;
@@ -113,6 +115,8 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
 
     private final List<X509Credential> trustedCredentials;
 
+    private final TrustedCredentialIndex trustedCredentialIndex;
+
     private final CertificateVerifierParams metadataCertificateVerifierParams;
 
     protected AbstractProtocolSigner(@Nonnull SignatureConfiguration signatureConfiguration)
@@ -125,6 +129,7 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
         validateSigningConfiguration(signatureConfiguration);
 
         trustedCredentials = CertificateUtil.getListOfCredential(signatureConfiguration.getTrustedCertificates());
+        trustedCredentialIndex = new TrustedCredentialIndex(trustedCredentials);
 
         X509Credential privateSigningCredential = CertificateUtil
                 .createCredential(signatureConfiguration.getSignatureKeyAndCertificate());
@@ -313,13 +318,13 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
      * If it is trusted, returns this certificate otherwise throws an EIDASSAMLEngineException exception.
      *
      * @param signature             the signature instance
-     * @param trustedCredentialList the trusted certificates which can be used to sign the given signature
+     * @param trustedCredentials the trusted certificates which can be used to sign the given signature
      * @return the signing certificate if it is trusted, or throws an exception otherwise.
      * @throws EIDASSAMLEngineException when the signature is signed by an untrusted certificate
      */
     @Nonnull
     private X509Credential getTrustedCertificate(@Nonnull Signature signature,
-                                                 @Nonnull List<? extends Credential> trustedCredentialList,
+                                                 @Nonnull TrustedCredentialIndex trustedCredentials,
                                                  @Nonnull final CertificateVerifierParams verifierParams)
             throws EIDASSAMLEngineException {
         X509Credential entityX509Cred;
@@ -334,34 +339,27 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
             checkCertificateIssuer(cert);
             LOG.info("isSignatureWithCertificate = " + entityX509Cred.getEntityId());
         } else {
-            entityX509Cred = getTrustedCertificateFromKeyValue(signature, trustedCredentialList);
+            entityX509Cred = getTrustedCertificateFromKeyValue(signature, trustedCredentials);
             LOG.info("isSignatureWithOutCertificate = " + entityX509Cred.getEntityId());
         }
 
-        checkValidTrust(trustedCredentialList, entityX509Cred, verifierParams);
+        checkValidTrust(trustedCredentials.getCredentials(), entityX509Cred, verifierParams);
         return entityX509Cred;
     }
 
-    private X509Credential getTrustedCertificateFromKeyValue(Signature signature, List<? extends Credential> trustedCredentialList) throws EIDASSAMLEngineException {
+    private X509Credential getTrustedCertificateFromKeyValue(Signature signature, TrustedCredentialIndex trustedCredentials) throws EIDASSAMLEngineException {
         final KeyInfo keyInfo = signature.getKeyInfo();
         if (null == keyInfo) {
             throw new EIDASSAMLEngineException(
                     EidasErrorKey.MESSAGE_VALIDATION_ERROR,
                     "Failed to extract Certificate from XML");
         }
-        for (Credential cred : trustedCredentialList) {
-            X509Credential credential = (X509Credential) cred;
-            final X509Certificate matchingCertificate;
-            try {
-                matchingCertificate = CertificateUtil.getMatchingCertificate(keyInfo, List.of(credential.getEntityCertificate()));
-            } catch (CertificateException e) {
-                continue;
-            }
-            if (null != matchingCertificate) {
-                checkCertificateValidityPeriod(matchingCertificate);
-                checkCertificateIssuer(matchingCertificate);
-                return credential;
-            }
+        final X509Credential credential = trustedCredentials.findByPublicKey(keyInfo);
+        if (null != credential) {
+            final X509Certificate matchingCertificate = credential.getEntityCertificate();
+            checkCertificateValidityPeriod(matchingCertificate);
+            checkCertificateIssuer(matchingCertificate);
+            return credential;
         }
         throw new EIDASSAMLEngineException(
                 EidasErrorKey.MESSAGE_VALIDATION_ERROR,
@@ -506,7 +504,7 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
      * <p>
      * This method iterates through the provided trust chain and checks if any certificate in the chain matches
      * a trusted certificate in the trust store. A certificate is considered a match if it is equal to one of
-     * the entity certificates in the trusted credentials.
+     * the entity certificates in the trusted credentials, which are looked up by issuer and serial number.
      * </p>
      * <p>
      * If a matching certificate is found, the method returns {@code true}. Otherwise, it returns {@code false}
@@ -519,9 +517,7 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
     @Nonnull
     public boolean checkMetadataTrustAnchorAgainstTrustStore(List<X509Certificate> trustChain) {
         for (X509Certificate certificate : trustChain) {
-            if (trustedCredentials.stream()
-                    .map(X509Credential::getEntityCertificate)
-                    .anyMatch(trustCert -> trustCert.equals(certificate))) {
+            if (trustedCredentialIndex.contains(certificate)) {
                 return true;
             }
         }
@@ -557,13 +553,13 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
                                                              @Nullable Collection<X509Certificate> trustedCertificateCollection,
                                                              @Nonnull CertificateVerifierParams verifierParams)
             throws EIDASSAMLEngineException {
-        List<? extends Credential> trustedCreds;
+        TrustedCredentialIndex trustedCreds;
 
         // 2) Verify the cryptographic signature:
         if (CollectionUtils.isEmpty(trustedCertificateCollection)) {
-            trustedCreds = getTrustedCredentials();
+            trustedCreds = trustedCredentialIndex;
         } else {
-            trustedCreds = CertificateUtil.getListOfCredential(trustedCertificateCollection);
+            trustedCreds = new TrustedCredentialIndex(CertificateUtil.getListOfCredential(trustedCertificateCollection));
         }
         return validateSignatureWithCredentials(signedObject, trustedCreds, verifierParams);
     }
@@ -571,21 +567,12 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
     @Override
     @Nonnull
     public Collection<String> getTrustedCredentialGraphIdentifiers() {
-
-        Base64.Encoder encoder = Base64.getEncoder();
-
-        return trustedCredentials.stream()
-                .filter(Objects::nonNull)
-                .map(X509Credential::getEntityCertificate)
-                .map(this::getCertificateEncodedForm)
-                .map(DigestUtils::sha256)
-                .map(encoder::encodeToString)
-                .collect(Collectors.toList());
+        return trustedCredentialIndex.getFingerprints();
     }
 
     @Nonnull
     private <T extends SignableXMLObject> T validateSignatureWithCredentials(@Nonnull T signedObject,
-                                                                             @Nonnull List<? extends Credential> trustedCredentialList,
+                                                                             @Nonnull TrustedCredentialIndex trustedCredentials,
                                                                              @Nonnull CertificateVerifierParams verifierParams)
             throws EIDASSAMLEngineException {
         LOG.debug("Start signature validation.");
@@ -593,13 +580,13 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
         validateSamlSignatureStructure(signedObject);
 
         // 2) Verify the cryptographic signature:
-        verifyCryptographicSignature(signedObject.getSignature(), trustedCredentialList, verifierParams);
+        verifyCryptographicSignature(signedObject.getSignature(), trustedCredentials, verifierParams);
 
         return signedObject;
     }
 
     private void verifyCryptographicSignature(@Nonnull Signature signature,
-                                              @Nonnull List<? extends Credential> trustedCredentialList,
+                                              @Nonnull TrustedCredentialIndex trustedCredentials,
                                               @Nonnull CertificateVerifierParams verifierParams)
             throws EIDASSAMLEngineException {
         // 1) check that we accept the signature algorithm
@@ -607,7 +594,7 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
         validateDigestAlgorithm(signature);
 
         // 2) check that we trust the signing certificate
-        X509Credential entityX509Cred = getTrustedCertificate(signature, trustedCredentialList, verifierParams);
+        X509Credential entityX509Cred = getTrustedCertificate(signature, trustedCredentials, verifierParams);
         validateCertificatesSignature(entityX509Cred.getEntityCertificateChain());
 
         // 3) verify the XML Digital Signature itself (XML-DSig)
@@ -698,10 +685,15 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
     }
 
     private int getHashAlgorithmBitsLength(String hashAlgorithmName) throws NoSuchAlgorithmException {
-        MessageDigest md = MessageDigest.getInstance(hashAlgorithmName);
-        int digestLengthBytes = md.getDigestLength();
-        // transpose from byte to bits length
-        return digestLengthBytes * 8;
+        Integer hashAlgorithmBitsLength = HASH_ALGORITHM_BITS_LENGTHS.get(hashAlgorithmName);
+        if (null == hashAlgorithmBitsLength) {
+            MessageDigest md = MessageDigest.getInstance(hashAlgorithmName);
+            int digestLengthBytes = md.getDigestLength();
+            // transpose from byte to bits length
+            hashAlgorithmBitsLength = digestLengthBytes * 8;
+            HASH_ALGORITHM_BITS_LENGTHS.put(hashAlgorithmName, hashAlgorithmBitsLength);
+        }
+        return hashAlgorithmBitsLength;
     }
 
     private void validateKeyLength(Key key) throws EIDASSAMLEngineException {
@@ -809,13 +801,4 @@ public abstract class AbstractProtocolSigner implements ProtocolSignerI, Metadat
         ((BasicKeyInfoGeneratorFactory) keyInfoGenFac).setEmitPublicDEREncodedKeyValue(true);
         return keyInfoGenFac;
     }
-
-    @Nonnull
-    private byte[] getCertificateEncodedForm(@Nonnull X509Certificate certificate) {
-        try {
-            return certificate.getEncoded();
-        } catch (final CertificateEncodingException e) {
-            throw new IllegalStateException("Certificate does not have a representation");
-        }
-    }
 }
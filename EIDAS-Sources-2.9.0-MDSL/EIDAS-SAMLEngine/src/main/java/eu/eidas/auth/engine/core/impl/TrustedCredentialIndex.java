@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.engine.core.impl;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.opensaml.security.x509.X509Credential;
+import org.opensaml.xmlsec.keyinfo.KeyInfoSupport;
+import org.opensaml.xmlsec.signature.KeyInfo;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.security.auth.x500.X500Principal;
+import java.math.BigInteger;
+import java.security.KeyException;
+import java.security.PublicKey;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of the trusted credentials of a trust store.
+ * <p>
+ * The credentials are indexed by issuer and serial number of their certificate, by the SHA-256 fingerprint of their
+ * certificate and by their public key, so that looking up a certificate or a key does not scan the whole trust store.
+ * The index is built once per loaded trust store.
+ */
+final class TrustedCredentialIndex {
+
+    private final List<X509Credential> credentials;
+
+    private final Map<Map.Entry<X500Principal, BigInteger>, List<X509Certificate>> certificatesByIssuerSerial;
+
+    private final Map<String, X509Credential> credentialsByPublicKey;
+
+    private final List<String> fingerprints;
+
+    TrustedCredentialIndex(@Nonnull List<X509Credential> credentials) {
+        final Map<Map.Entry<X500Principal, BigInteger>, List<X509Certificate>> issuerSerialIndex = new HashMap<>();
+        final Map<String, X509Credential> publicKeyIndex = new HashMap<>();
+        final List<String> fingerprintList = new ArrayList<>();
+
+        for (final X509Credential credential : credentials) {
+            if (null == credential) {
+                continue;
+            }
+            final X509Certificate certificate = credential.getEntityCertificate();
+            issuerSerialIndex.computeIfAbsent(issuerSerial(certificate), key -> new ArrayList<>()).add(certificate);
+            // the first credential of the trust store wins, as when scanning the trust store in order
+            publicKeyIndex.putIfAbsent(encode(certificate.getPublicKey()), credential);
+            fingerprintList.add(fingerprint(certificate));
+        }
+        this.credentials = Collections.unmodifiableList(new ArrayList<>(credentials));
+        this.certificatesByIssuerSerial = issuerSerialIndex;
+        this.credentialsByPublicKey = publicKeyIndex;
+        this.fingerprints = Collections.unmodifiableList(fingerprintList);
+    }
+
+    /**
+     * @return the indexed credentials, in the order of the trust store
+     */
+    @Nonnull
+    List<X509Credential> getCredentials() {
+        return credentials;
+    }
+
+    /**
+     * @param certificate the certificate to look up
+     * @return {@code true} if the certificate is one of the trusted certificates
+     */
+    boolean contains(@Nonnull X509Certificate certificate) {
+        final List<X509Certificate> candidates = certificatesByIssuerSerial.get(issuerSerial(certificate));
+        return null != candidates && candidates.contains(certificate);
+    }
+
+    /**
+     * Finds the trusted credential of the public key contained in the given {@link KeyInfo}.
+     *
+     * @param keyInfo the key info of a signature
+     * @return the matching credential or {@code null} if the key info contains no public key or an untrusted one
+     */
+    @Nullable
+    X509Credential findByPublicKey(@Nonnull KeyInfo keyInfo) {
+        final List<PublicKey> publicKeys;
+        try {
+            publicKeys = KeyInfoSupport.getPublicKeys(keyInfo);
+        } catch (KeyException e) {
+            return null;
+        }
+        if (publicKeys.isEmpty()) {
+            return null;
+        }
+        final PublicKey publicKey = publicKeys.get(0);
+        final X509Credential credential = credentialsByPublicKey.get(encode(publicKey));
+        if (null != credential) {
+            return credential;
+        }
+        // keys of different providers may be equal without having the same encoded form
+        for (final X509Credential candidate : credentials) {
+            if (null != candidate && candidate.getEntityCertificate().getPublicKey().equals(publicKey)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the Base64 encoded SHA-256 fingerprints of the trusted certificates, in the order of the trust store
+     */
+    @Nonnull
+    List<String> getFingerprints() {
+        return fingerprints;
+    }
+
+    @Nonnull
+    private static Map.Entry<X500Principal, BigInteger> issuerSerial(@Nonnull X509Certificate certificate) {
+        return new AbstractMap.SimpleImmutableEntry<>(certificate.getIssuerX500Principal(),
+                certificate.getSerialNumber());
+    }
+
+    @Nonnull
+    private static String encode(@Nonnull PublicKey publicKey) {
+        final byte[] encoded = publicKey.getEncoded();
+        return null == encoded ? publicKey.toString() : Base64.getEncoder().encodeToString(encoded);
+    }
+
+    @Nonnull
+    private static String fingerprint(@Nonnull X509Certificate certificate) {
+        try {
+            return Base64.getEncoder().encodeToString(DigestUtils.sha256(certificate.getEncoded()));
+        } catch (final CertificateEncodingException e) {
+            throw new IllegalStateException("Certificate does not have a representation");
+        }
+    }
+}
@@ -15,12 +15,16 @@
 
 package eu.eidas.auth.engine.xml.opensaml;
 
+import eu.eidas.auth.commons.EidasRandomUtil;
+
 import java.security.SecureRandom;
 
 
 /**
  * Random IdentifierGenerator for a valid XML ID, which must match the NCName syntax defined in
  * https://www.w3.org/TR/1999/REC-xml-names-19990114/#NT-NCName.
+ * <p>
+ * The identifiers are drawn from the {@link SecureRandom} of the current thread, see {@link EidasRandomUtil}.
  *
  * @since 1.1
  */
@@ -28,8 +32,6 @@ public enum SecureRandomXmlIdGenerator {
 
     INSTANCE;
 
-    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
-
     /**
      * See https://www.w3.org/TR/1999/REC-xml-names-19990114/#NT-NCName
      */
@@ -86,10 +88,11 @@ public enum SecureRandomXmlIdGenerator {
     }
 
     public String generateIdentifier(int size) {
+        final SecureRandom secureRandom = EidasRandomUtil.getSecureRandom();
         char[] random = new char[size];
         random[0] = '_';
         for (int i = 1; i < size; i++) {
-            random[i] = NCN_ALPHABET[SECURE_RANDOM.nextInt(NCN_ALPHABET.length)];
+            random[i] = NCN_ALPHABET[secureRandom.nextInt(NCN_ALPHABET.length)];
         }
         return String.valueOf(random);
     }
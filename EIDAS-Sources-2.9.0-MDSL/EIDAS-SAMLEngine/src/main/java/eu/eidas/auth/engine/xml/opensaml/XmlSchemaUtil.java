@@ -28,22 +28,35 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.SAXParseException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * XML Schema Utility class.
+ * <p>
+ * A {@link Validator} is not thread-safe but is expensive to create, so the validators are pooled per {@link Schema}
+ * and reset before being reused, as {@link DocumentBuilderFactoryUtil} does for the document builders.
  *
  * @since 1.1
  */
@@ -51,6 +64,39 @@ public final class XmlSchemaUtil {
 
     private static final Logger LOG = LoggerFactory.getLogger(XmlSchemaUtil.class);
 
+    /**
+     * The pooled validators per schema, the schemas being weakly referenced.
+     */
+    private static final Map<Schema, Queue<Validator>> VALIDATOR_POOLS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The pooled schema validating document builders per schema, the schemas being weakly referenced.
+     */
+    private static final Map<Schema, Queue<DocumentBuilder>> VALIDATING_DOCUMENT_BUILDER_POOLS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Makes the validating parser fail on the schema validation errors, which it only reports by default.
+     */
+    private static final ErrorHandler SCHEMA_VALIDATION_ERROR_HANDLER = new ErrorHandler() {
+
+        @Override
+        public void warning(SAXParseException exception) {
+            LOG.debug("Schema validation warning: " + exception);
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+    };
+
     public static Document validateSamlSchema(@Nonnull String samlString) throws EIDASSAMLEngineException {
         try {
             return validateSchema(OpenSamlHelper.getSchema(), samlString);
@@ -70,17 +116,43 @@ public final class XmlSchemaUtil {
         }
     }
 
+    /**
+     * Parses the SAML message and validates it against the SAML schema in the same pass.
+     * <p>
+     * The validating parser adds the default values of the attributes declared in the schema to the returned
+     * document, so that document must not be used to verify the signature of the message: this method is meant for
+     * the messages which have already been validated, for instance to log them.
+     *
+     * @param samlBytes the SAML message
+     * @return the parsed and validated document
+     * @throws EIDASSAMLEngineException if the message cannot be parsed or is not valid
+     */
+    public static Document parseAndValidateSamlSchema(@Nonnull byte[] samlBytes) throws EIDASSAMLEngineException {
+        try {
+            return parseAndValidateSchema(OpenSamlHelper.getSchema(), samlBytes);
+        } catch (EIDASSAMLEngineException e) {
+            LOG.error(AbstractProtocolEngine.SAML_EXCHANGE, "BUSINESS EXCEPTION : Validate schema exception: " + e, e);
+            throw new EIDASSAMLEngineException(EidasErrorKey.MESSAGE_VALIDATION_ERROR, "BUSINESS EXCEPTION : Validate schema exception: ", e);
+        }
+    }
+
     public static void validateSchema(@Nonnull Schema schema, @Nonnull Document document)
             throws EIDASSAMLEngineException {
+        Validator validator = null;
         try {
             Element element = document.getDocumentElement();
             DOMSource domSrc = new DOMSource(element);
-            Validator validator = newSecureValidator(schema);
+            validator = VALIDATOR_POOLS.computeIfAbsent(schema, key -> new ConcurrentLinkedQueue<>()).poll();
+            if (null == validator) {
+                validator = newSecureValidator(schema);
+            }
             validator.validate(domSrc);
         } catch (IOException | SAXException e) {
             LOG.error(AbstractProtocolEngine.SAML_EXCHANGE, "BUSINESS EXCEPTION : Validate schema exception: " + e, e);
             throw new EIDASSAMLEngineException(EidasErrorKey.MESSAGE_VALIDATION_ERROR,
                     "BUSINESS EXCEPTION : Validate schema exception: ", e);
+        } finally {
+            releaseValidator(schema, validator);
         }
     }
 
@@ -111,6 +183,38 @@ public final class XmlSchemaUtil {
         return document;
     }
 
+    /**
+     * Parses the XML document and validates it against the schema in the same pass, with a pooled validating
+     * document builder.
+     *
+     * @param schema the schema to validate against
+     * @param xmlBytes the XML document
+     * @return the parsed and validated document, with the default attribute values declared in the schema
+     * @throws EIDASSAMLEngineException if the document cannot be parsed or is not valid
+     */
+    public static Document parseAndValidateSchema(@Nonnull Schema schema, @Nonnull byte[] xmlBytes)
+            throws EIDASSAMLEngineException {
+        Preconditions.checkNotNull(xmlBytes, "xmlBytes");
+        final Queue<DocumentBuilder> pool =
+                VALIDATING_DOCUMENT_BUILDER_POOLS.computeIfAbsent(schema, key -> new ConcurrentLinkedQueue<>());
+        DocumentBuilder documentBuilder = pool.poll();
+        try {
+            if (null == documentBuilder) {
+                documentBuilder = newValidatingDocumentBuilder(schema);
+            }
+            documentBuilder.setErrorHandler(SCHEMA_VALIDATION_ERROR_HANDLER);
+            return documentBuilder.parse(new ByteArrayInputStream(xmlBytes));
+        } catch (IOException | SAXException | ParserConfigurationException e) {
+            LOG.error(AbstractProtocolEngine.SAML_EXCHANGE, "BUSINESS EXCEPTION : Validate schema exception: " + e, e);
+            throw new EIDASSAMLEngineException(EidasErrorKey.MESSAGE_VALIDATION_ERROR, "BUSINESS EXCEPTION : Validate schema exception: ", e);
+        } finally {
+            if (null != documentBuilder) {
+                documentBuilder.reset();
+                pool.offer(documentBuilder);
+            }
+        }
+    }
+
     /**
      * Create a new {@link Validator} for this schema, already set up with security features turned on.
      *
@@ -159,6 +263,27 @@ public final class XmlSchemaUtil {
         return features;
     }
 
+    @Nonnull
+    private static DocumentBuilder newValidatingDocumentBuilder(@Nonnull Schema schema)
+            throws ParserConfigurationException {
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactoryUtil.newSecureDocumentBuilderFactory();
+        documentBuilderFactory.setSchema(schema);
+        return documentBuilderFactory.newDocumentBuilder();
+    }
+
+    /**
+     * Resets the validator to its initial state and returns it to the pool of the schema.
+     *
+     * @param schema the schema of the validator
+     * @param validator the validator to return, may be null if it could not be created
+     */
+    private static void releaseValidator(@Nonnull Schema schema, @Nullable Validator validator) {
+        if (null != validator) {
+            validator.reset();
+            VALIDATOR_POOLS.computeIfAbsent(schema, key -> new ConcurrentLinkedQueue<>()).offer(validator);
+        }
+    }
+
     private XmlSchemaUtil() {
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.eidas.auth.engine.core.impl;
+
+import eu.eidas.RecommendedSecurityProviders;
+import eu.eidas.auth.commons.xml.opensaml.OpenSamlHelper;
+import eu.eidas.auth.engine.xml.opensaml.CertificateUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opensaml.security.x509.X509Credential;
+import org.opensaml.xmlsec.signature.KeyInfo;
+
+import java.io.FileInputStream;
+import java.security.KeyStore;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Test class for {@link TrustedCredentialIndex}
+ */
+public class TrustedCredentialIndexTest {
+
+    private static final String UNTRUSTED_CERT_PATH = "src/test/resources/certificates/SHA256withRSAandMGF1.crt";
+
+    private X509Certificate trustedCert;
+
+    private X509Certificate selfSignedCert;
+
+    private TrustedCredentialIndex index;
+
+    @BeforeClass
+    public static void setupClass() {
+        RecommendedSecurityProviders.setupRecommendedSecurityProviders();
+        OpenSamlHelper.initialize();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (FileInputStream fis = new FileInputStream("src/test/resources/keystoreTestCertificates.p12")) {
+            keyStore.load(fis, "local-demo".toCharArray());
+        }
+        trustedCert = (X509Certificate) keyStore.getCertificate("trustedCert");
+        selfSignedCert = (X509Certificate) keyStore.getCertificate("selfSignedCert");
+        index = new TrustedCredentialIndex(CertificateUtil.getListOfCredential(Arrays.asList(trustedCert, selfSignedCert)));
+    }
+
+    /**
+     * Test method for {@link TrustedCredentialIndex#contains(X509Certificate)}
+     * <p>
+     * Must find the trusted certificates only.
+     */
+    @Test
+    public void contains() throws Exception {
+        Assert.assertTrue(index.contains(trustedCert));
+        Assert.assertTrue(index.contains(selfSignedCert));
+        Assert.assertFalse(index.contains(getCertificate(UNTRUSTED_CERT_PATH)));
+    }
+
+    /**
+     * Test method for {@link TrustedCredentialIndex#findByPublicKey(KeyInfo)}
+     * when the key info contains the public key of a trusted certificate
+     * <p>
+     * Must return the credential of this certificate.
+     */
+    @Test
+    public void findByPublicKey() throws Exception {
+        final X509Credential credential = CertificateUtil.toCredential(selfSignedCert);
+        final KeyInfo keyInfo = AbstractProtocolSigner.createKeyInfo(credential, true);
+
+        final X509Credential found = index.findByPublicKey(keyInfo);
+
+        Assert.assertNotNull(found);
+        Assert.assertEquals(selfSignedCert, found.getEntityCertificate());
+    }
+
+    /**
+     * Test method for {@link TrustedCredentialIndex#findByPublicKey(KeyInfo)}
+     * when the key info contains the public key of an untrusted certificate
+     * <p>
+     * Must return null.
+     */
+    @Test
+    public void findByPublicKeyUntrusted() throws Exception {
+        final X509Credential credential = CertificateUtil.toCredential(getCertificate(UNTRUSTED_CERT_PATH));
+        final KeyInfo keyInfo = AbstractProtocolSigner.createKeyInfo(credential, true);
+
+        Assert.assertNull(index.findByPublicKey(keyInfo));
+    }
+
+    /**
+     * Test method for {@link TrustedCredentialIndex#findByPublicKey(KeyInfo)}
+     * when the key info contains no public key
+     * <p>
+     * Must return null.
+     */
+    @Test
+    public void findByPublicKeyWithoutKey() {
+        Assert.assertNull(index.findByPublicKey(Mockito.mock(KeyInfo.class)));
+    }
+
+    /**
+     * Test method for {@link TrustedCredentialIndex#getFingerprints()}
+     * <p>
+     * Must return the Base64 encoded SHA-256 fingerprints in the order of the trust store.
+     */
+    @Test
+    public void getFingerprints() throws Exception {
+        final List<String> fingerprints = index.getFingerprints();
+
+        Assert.assertEquals(Arrays.asList(
+                Base64.getEncoder().encodeToString(DigestUtils.sha256(trustedCert.getEncoded())),
+                Base64.getEncoder().encodeToString(DigestUtils.sha256(selfSignedCert.getEncoded()))),
+                fingerprints);
+    }
+
+    private static X509Certificate getCertificate(String certificatePath) throws Exception {
+        CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+        try (FileInputStream certificateFileInputStream = new FileInputStream(certificatePath)) {
+            return (X509Certificate) certificateFactory.generateCertificate(certificateFileInputStream);
+        }
+    }
+}
@@ -20,12 +20,14 @@ package eu.eidas.auth.engine.xml.opensaml;
 import eu.eidas.RecommendedSecurityProviders;
 import eu.eidas.auth.commons.EidasErrorKey;
 import eu.eidas.auth.commons.EidasStringUtil;
+import eu.eidas.auth.commons.xml.DocumentBuilderFactoryUtil;
 import eu.eidas.auth.commons.xml.opensaml.OpenSamlHelper;
 import eu.eidas.engine.exceptions.EIDASSAMLEngineException;
 import eu.eidas.engine.syntax.SyntaxTestUtil;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
@@ -224,6 +226,57 @@ public class XmlSchemaUtilTest {
         XmlSchemaUtil.validateSamlSchema(maliciousXMLSample);
     }
 
+    /**
+     * Test method for
+     * {@link XmlSchemaUtil#validateSchema(Schema, Document)}
+     * when the pooled validator is reused after a failed validation
+     *
+     * Must succeed.
+     */
+    @Test
+    public void testValidateSchemaDocumentPooledValidatorReused() throws Exception {
+        final Document document = DocumentBuilderFactoryUtil.parse(SyntaxTestUtil.createSAMLRequestToken());
+        final Schema schema = OpenSamlHelper.getSchema();
+
+        XmlSchemaUtil.validateSchema(schema, document);
+        try {
+            XmlSchemaUtil.validateSchema(schema, maliciousXMLSample);
+            Assert.fail("The malicious document must not be valid");
+        } catch (EIDASSAMLEngineException e) {
+            Assert.assertEquals(EidasErrorKey.MESSAGE_VALIDATION_ERROR, e.getEidasErrorKey());
+        }
+        XmlSchemaUtil.validateSchema(schema, document);
+    }
+
+    /**
+     * Test method for
+     * {@link XmlSchemaUtil#parseAndValidateSamlSchema(byte[])}
+     * when the message is valid
+     *
+     * Must succeed.
+     */
+    @Test
+    public void testParseAndValidateSamlSchema() throws EIDASSAMLEngineException {
+        final Document document = XmlSchemaUtil.parseAndValidateSamlSchema(SyntaxTestUtil.createSAMLRequestToken());
+
+        Assert.assertEquals("AuthnRequest", document.getDocumentElement().getLocalName());
+    }
+
+    /**
+     * Test method for
+     * {@link XmlSchemaUtil#parseAndValidateSamlSchema(byte[])}
+     * when the message is malicious
+     *
+     * Must fail.
+     */
+    @Test
+    public void testParseAndValidateSamlSchemaMalicious() throws EIDASSAMLEngineException {
+        expectedException.expect(EIDASSAMLEngineException.class);
+        expectedException.expectMessage(EidasErrorKey.MESSAGE_VALIDATION_ERROR.errorMessage());
+
+        XmlSchemaUtil.parseAndValidateSamlSchema(EidasStringUtil.getBytes(maliciousXMLSample));
+    }
+
     /**
      * Auxiliary method that creates a malicious {@link DOMSource}
      *
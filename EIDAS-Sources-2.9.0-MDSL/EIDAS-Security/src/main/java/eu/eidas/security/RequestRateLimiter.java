@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package eu.eidas.security;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the number of requests per client (a remote address or a referer domain) with one token bucket per client.
+ * <p>
+ * A bucket holds up to {@code threshold} tokens and is refilled with {@code threshold} tokens every {@code maxTime}
+ * seconds; each accepted request takes one token. A client can thus send {@code threshold} requests at once, then
+ * one request every {@code maxTime / threshold} seconds. Deciding costs constant time and allocates nothing once the
+ * client is known. As with the previous timestamp lists, the first request of a client is always accepted, so a
+ * threshold of zero accepts a single request per client and rejects the following ones.
+ * <p>
+ * A bucket which has not been used for {@code maxTime} seconds is full again, so it is equivalent to no bucket and is
+ * dropped when the limiter reaches its maximum number of clients. Buckets still in use are never dropped: when none is
+ * idle, the requests of the new clients all take their tokens from one shared overflow bucket. A flood of (spoofed)
+ * clients thus neither grows the memory nor resets the buckets of the clients already limited.
+ */
+public class RequestRateLimiter {
+
+    /**
+     * Default maximum number of clients tracked at the same time.
+     */
+    public static final int DEFAULT_MAX_CLIENTS = 10000;
+
+    /**
+     * Static variable to get the number of milliseconds (seconds * MILLIS).
+     */
+    private static final long MILLIS = 1000L;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * The bucket shared by the clients which cannot be tracked while the limiter is full.
+     */
+    private final TokenBucket overflowBucket;
+
+    private final int maxClients;
+
+    private final Clock clock;
+
+    /**
+     * Minimum time between two purges of the idle buckets, so that a flood of new clients does not scan the whole
+     * map for each request.
+     */
+    private volatile long nextPurgeMillis;
+
+    public RequestRateLimiter() {
+        this(DEFAULT_MAX_CLIENTS, Clock.systemUTC());
+    }
+
+    public RequestRateLimiter(int maxClients, Clock clock) {
+        if (maxClients < 1) {
+            throw new IllegalArgumentException("maxClients must be positive: " + maxClients);
+        }
+        this.maxClients = maxClients;
+        this.clock = clock;
+        this.overflowBucket = new TokenBucket(clock.millis());
+    }
+
+    /**
+     * Takes a token from the bucket of the client.
+     *
+     * @param client    the remote address or domain of the incoming request
+     * @param threshold the number of requests the same client can issue within the time span
+     * @param maxTime   the time span in seconds; when not positive, the requests are not limited
+     * @return {@code true} if the request is accepted, {@code false} if the threshold has been reached
+     */
+    public boolean tryAcquire(final String client, final int threshold, final int maxTime) {
+        if (maxTime <= 0) {
+            return true;
+        }
+        final long windowMillis = maxTime * MILLIS;
+        final long now = clock.millis();
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            if (!makeRoom(now, windowMillis)) {
+                return overflowBucket.tryAcquire(now, threshold, windowMillis);
+            }
+            bucket = buckets.computeIfAbsent(client, key -> new TokenBucket(now));
+        }
+        return bucket.tryAcquire(now, threshold, windowMillis);
+    }
+
+    /**
+     * @return the number of clients currently tracked
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Drops the idle buckets when the limiter is full.
+     *
+     * @return {@code true} if a new client can be tracked
+     */
+    private boolean makeRoom(final long now, final long windowMillis) {
+        if (buckets.size() < maxClients) {
+            return true;
+        }
+        if (now >= nextPurgeMillis) {
+            nextPurgeMillis = now + Math.min(windowMillis, MILLIS);
+            buckets.values().removeIf(bucket -> bucket.isIdle(now, windowMillis));
+        }
+        return buckets.size() < maxClients;
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+
+        private boolean used;
+
+        private long lastRefillMillis;
+
+        private TokenBucket(long now) {
+            this.lastRefillMillis = now;
+        }
+
+        private synchronized boolean tryAcquire(long now, int threshold, long windowMillis) {
+            if (!used) {
+                // the first request is always accepted
+                used = true;
+                tokens = Math.max(threshold, 1);
+            } else if (now > lastRefillMillis) {
+                tokens = Math.min(threshold, tokens + (double) (now - lastRefillMillis) * threshold / windowMillis);
+            }
+            lastRefillMillis = Math.max(lastRefillMillis, now);
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized boolean isIdle(long now, long windowMillis) {
+            return now - lastRefillMillis >= windowMillis;
+        }
+    }
+}
@@ -40,9 +40,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 import org.springframework.web.context.ContextLoader;
 
@@ -59,14 +56,14 @@ public class SecurityRequestFilter implements Filter {
     protected static final int THREE = 3;
 
     /**
-     * Map containing the IP addresses of the citizens.
+     * Rate limiter of the IP addresses of the citizens.
      */
-    protected transient ConcurrentHashMap<String, List<Long>> spIps = new ConcurrentHashMap<>();
+    protected transient RequestRateLimiter spIps = new RequestRateLimiter();
 
     /**
-     * Map containing the IP addresses from the Service Providers.
+     * Rate limiter of the domains of the Service Providers.
      */
-    protected transient ConcurrentHashMap<String, List<Long>> spRequests = new ConcurrentHashMap<>();
+    protected transient RequestRateLimiter spRequests = new RequestRateLimiter();
 
     /**
      * Configured on the web.xml
@@ -76,12 +73,6 @@ public class SecurityRequestFilter implements Filter {
     private String includedServlets;
 
 
-    /**
-     * Static variable to get the number of milliseconds (seconds * MILLIS).
-     */
-    private static final long MILLIS = 1000L;
-
-
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         LOG.info(LoggingMarkerMDC.SYSTEM_EVENT, "Init of SecurityRequestFilter filter");
@@ -186,35 +177,17 @@ public class SecurityRequestFilter implements Filter {
      * @param threshold   The number of requests the same remoteAddr can issue.
      *                    within a time span.
      * @param pathInvoked The name of the class (in case of exception).
-     * @param listIP      The list of allowed IP.
-     * @see Map
-     * @see java.util.ArrayList
+     * @param rateLimiter The rate limiter of the kind of remote address.
+     * @see RequestRateLimiter
      */
     public final void checkRequest(final String remoteAddr, final int maxTime,
                                    final int threshold, final String pathInvoked,
-                                   final ConcurrentHashMap<String, List<Long>> listIP) {
-
-        List<Long> knownAddressTimestampList = listIP.get(remoteAddr);
-        final long currentTimeMillis = System.currentTimeMillis();
-        if (knownAddressTimestampList == null) {
-            listIP.put(remoteAddr, Arrays.asList(currentTimeMillis));
-        } else {
-            List<Long> relevantTimeStamps = knownAddressTimestampList.stream()
-                    .filter(t -> !timestampHasExpired(t, currentTimeMillis, maxTime))// any timestamps have expired
-                    .collect(Collectors.toList());
-
-            if (relevantTimeStamps.size() + 1 > threshold) {
-                LOG.warn(LoggingMarkerMDC.SECURITY_WARNING, "Requests/Minute reached for referer: {}", remoteAddr);
-                throw servletSpecificRequestsSecurityError(pathInvoked);
-            }
-            relevantTimeStamps.add(currentTimeMillis);
-            listIP.put(remoteAddr, relevantTimeStamps);
-        }
-    }
+                                   final RequestRateLimiter rateLimiter) {
 
-    boolean timestampHasExpired(Long timestamp, Long currentTimeMillis, int maxTimeSeconds) {
-        final long limitTime = currentTimeMillis - maxTimeSeconds * MILLIS;
-        return timestamp < limitTime;
+        if (!rateLimiter.tryAcquire(remoteAddr, threshold, maxTime)) {
+            LOG.warn(LoggingMarkerMDC.SECURITY_WARNING, "Requests/Minute reached for referer: {}", remoteAddr);
+            throw servletSpecificRequestsSecurityError(pathInvoked);
+        }
     }
 
     /**
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024 by European Commission
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be
+ * approved by the European Commission - subsequent versions of the
+ * EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * https://joinup.ec.europa.eu/page/eupl-text-11-12
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package eu.eidas.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Test class for {@link RequestRateLimiter}
+ */
+public class RequestRateLimiterTest {
+
+    private static final String CLIENT = "10.0.0.1";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-06-01T10:00:00Z"));
+
+    /**
+     * Test method for {@link RequestRateLimiter#tryAcquire(String, int, int)}
+     * when the client sends more requests than the threshold at once
+     * <p>
+     * Must accept the threshold and reject the next request.
+     */
+    @Test
+    public void tryAcquireThresholdReached() {
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(10, clock);
+
+        Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 3, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 3, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 3, 60));
+        Assert.assertFalse(rateLimiter.tryAcquire(CLIENT, 3, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.2", 3, 60));
+    }
+
+    /**
+     * Test method for {@link RequestRateLimiter#tryAcquire(String, int, int)}
+     * when time has elapsed since the threshold was reached
+     * <p>
+     * Must accept one request for each elapsed fraction of the time span.
+     */
+    @Test
+    public void tryAcquireRefilled() {
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(10, clock);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 3, 60));
+        }
+
+        clock.advance(Duration.ofSeconds(19));
+        Assert.assertFalse(rateLimiter.tryAcquire(CLIENT, 3, 60));
+        clock.advance(Duration.ofSeconds(1));
+        Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 3, 60));
+        Assert.assertFalse(rateLimiter.tryAcquire(CLIENT, 3, 60));
+    }
+
+    /**
+     * Test method for {@link RequestRateLimiter#tryAcquire(String, int, int)}
+     * when the time span is not positive
+     * <p>
+     * Must not limit the requests.
+     */
+    @Test
+    public void tryAcquireWithoutTimeSpan() {
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(10, clock);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 3, -2000));
+        }
+        Assert.assertEquals(0, rateLimiter.size());
+    }
+
+    /**
+     * Test method for {@link RequestRateLimiter#tryAcquire(String, int, int)}
+     * when more clients than the maximum send requests
+     * <p>
+     * Must keep the number of tracked clients bounded, dropping the idle ones first.
+     */
+    @Test
+    public void tryAcquireBounded() {
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(2, clock);
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.1", 2, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.2", 2, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.2", 2, 60));
+
+        clock.advance(Duration.ofSeconds(30));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.2", 2, 60));
+        clock.advance(Duration.ofSeconds(30));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.3", 2, 60));
+
+        Assert.assertEquals(2, rateLimiter.size());
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.2", 2, 60));
+        Assert.assertFalse(rateLimiter.tryAcquire("10.0.0.2", 2, 60));
+
+        for (int i = 4; i < 100; i++) {
+            rateLimiter.tryAcquire("10.0.0." + i, 1, 60);
+        }
+        Assert.assertEquals(2, rateLimiter.size());
+    }
+
+    /**
+     * Test method for {@link RequestRateLimiter#tryAcquire(String, int, int)}
+     * when a flood of new clients arrives while the limiter is full of clients still in use
+     * <p>
+     * Must keep the clients already limited limited, and charge the new clients to the shared overflow bucket.
+     */
+    @Test
+    public void tryAcquireFloodDoesNotResetLimitedClient() {
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(3, clock);
+        Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 2, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 2, 60));
+        Assert.assertFalse(rateLimiter.tryAcquire(CLIENT, 2, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.2", 2, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.3", 2, 60));
+
+        int acceptedFloodRequests = 0;
+        for (int i = 0; i < 1000; i++) {
+            clock.advance(Duration.ofMillis(10));
+            if (rateLimiter.tryAcquire("spoofed-" + i + ".example.com", 2, 60)) {
+                acceptedFloodRequests++;
+            }
+        }
+
+        Assert.assertFalse(rateLimiter.tryAcquire(CLIENT, 2, 60));
+        Assert.assertEquals(3, rateLimiter.size());
+        Assert.assertEquals(2, acceptedFloodRequests);
+    }
+
+    /**
+     * Test method for {@link RequestRateLimiter#tryAcquire(String, int, int)}
+     * when the threshold is zero
+     * <p>
+     * Must accept the first request of each client and reject the following ones.
+     */
+    @Test
+    public void tryAcquireZeroThreshold() {
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(10, clock);
+
+        Assert.assertTrue(rateLimiter.tryAcquire(CLIENT, 0, 60));
+        Assert.assertFalse(rateLimiter.tryAcquire(CLIENT, 0, 60));
+        clock.advance(Duration.ofSeconds(30));
+        Assert.assertFalse(rateLimiter.tryAcquire(CLIENT, 0, 60));
+        Assert.assertTrue(rateLimiter.tryAcquire("10.0.0.2", 0, 60));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -17,6 +17,7 @@
  */
 package eu.eidas.specificcommunication;
 
+import eu.eidas.auth.commons.EidasRandomUtil;
 import eu.eidas.auth.commons.EidasStringUtil;
 import eu.eidas.auth.commons.light.impl.LightToken;
 import eu.eidas.auth.commons.tx.BinaryLightToken;
@@ -28,7 +29,6 @@ import javax.servlet.http.HttpServletRequest;
 import java.security.NoSuchAlgorithmException;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.UUID;
 
 /**
  * Helper class for BinaryLightToken.
@@ -49,16 +49,25 @@ public class BinaryLightTokenHelper {
      * @throws SpecificCommunicationException if the {@code algorithm} is an invalid one
      */
     public static String getBinaryLightTokenId(final @Nonnull String binaryLightTokenBase64, final String secret, final String algorithm) throws SpecificCommunicationException {
-        final String binaryLightTokenString = EidasStringUtil.decodeStringFromBase64(binaryLightTokenBase64);
+        return decodeBinaryLightTokenBase64(binaryLightTokenBase64, secret, algorithm).getToken().getId();
+    }
 
-        final BinaryLightToken binaryLightToken;
+    /**
+     * Decodes and validates a {@link BinaryLightToken} Base64 encoded string.
+     *
+     * @param binaryLightTokenBase64 the {@link BinaryLightToken} Base64 encoded
+     * @param secret secret for creating the digest
+     * @param algorithm digest algorithm
+     * @return the {@link BinaryLightToken} carrying the id, issuer and creation time of the token
+     * @throws SpecificCommunicationException if the {@code algorithm} is an invalid one
+     */
+    @Nonnull
+    public static BinaryLightToken decodeBinaryLightTokenBase64(final @Nonnull String binaryLightTokenBase64, final String secret, final String algorithm) throws SpecificCommunicationException {
         try {
-            binaryLightToken = LightTokenEncoder.decode(binaryLightTokenString.getBytes(), secret, algorithm);
+            return LightTokenEncoder.decode(EidasStringUtil.decodeBytesFromBase64(binaryLightTokenBase64), secret, algorithm);
         } catch (NoSuchAlgorithmException e) {
             throw new SpecificCommunicationException(e);
         }
-
-        return binaryLightToken.getToken().getId();
     }
 
     /**
@@ -83,8 +92,7 @@ public class BinaryLightTokenHelper {
      * @return the {@link BinaryLightToken} Base64 encoded
      */
     public static String encodeBinaryLightTokenBase64(final BinaryLightToken binaryLightToken) {
-        final byte[] binaryLightTokenBytes = binaryLightToken.getTokenBytes();
-        return EidasStringUtil.encodeToBase64(binaryLightTokenBytes);
+        return binaryLightToken.getTokenBase64();
     }
 
     /**
@@ -112,7 +120,7 @@ public class BinaryLightTokenHelper {
      * @return an instance of {@link LightToken}
      */
     private static LightToken createLightToken(final String issuerName) {
-        final String lightTokenId = UUID.randomUUID().toString();
+        final String lightTokenId = EidasRandomUtil.randomUUID();
         return new LightToken.Builder().id(lightTokenId)
                 .issuer(issuerName)
                 .createdOn(ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS))
@@ -28,6 +28,8 @@ import eu.eidas.specificcommunication.protocol.util.LightMessagesConverter;
 import eu.eidas.specificcommunication.protocol.util.SecurityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
@@ -37,9 +39,13 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.sax.SAXSource;
 import java.io.StringWriter;
 import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 
 public class LightJAXBCodec {
 	private static final Logger LOG = LoggerFactory.getLogger(AttributeRegistry.class);
@@ -50,19 +56,51 @@ public class LightJAXBCodec {
 			LightResponse.class
 	};
 
+	/**
+	 * Maximum number of idle marshallers and unmarshallers kept for reuse, per light message type.
+	 */
+	static final int MAX_POOLED_CODERS = 64;
+
 	LightMessagesConverter messagesConverter = new LightMessagesConverter();
 	JAXBContext lightRequestJAXBCtx;
 	JAXBContext lightResponseJAXBCtx;
 
+	private final boolean formattedOutput;
+
+	private final Queue<Marshaller> lightRequestMarshallers = new ArrayBlockingQueue<>(MAX_POOLED_CODERS);
+	private final Queue<Marshaller> lightResponseMarshallers = new ArrayBlockingQueue<>(MAX_POOLED_CODERS);
+	private final Queue<Unmarshaller> lightRequestUnmarshallers = new ArrayBlockingQueue<>(MAX_POOLED_CODERS);
+	private final Queue<Unmarshaller> lightResponseUnmarshallers = new ArrayBlockingQueue<>(MAX_POOLED_CODERS);
+
 	LightJAXBCodec(JAXBContext lightRequestJAXBCtx, JAXBContext lightResponseJAXBCtx) {
+		this(lightRequestJAXBCtx, lightResponseJAXBCtx, false);
+	}
+
+	LightJAXBCodec(JAXBContext lightRequestJAXBCtx, JAXBContext lightResponseJAXBCtx, boolean formattedOutput) {
 		this.lightRequestJAXBCtx = lightRequestJAXBCtx;
 		this.lightResponseJAXBCtx = lightResponseJAXBCtx;
+		this.formattedOutput = formattedOutput;
 	}
 
+	/**
+	 * Builds a codec which marshalls the light messages without indentation, as they are sent on the wire.
+	 *
+	 * @return the codec
+	 */
 	public static LightJAXBCodec buildDefault() {
+		return buildDefault(false);
+	}
+
+	/**
+	 * Builds a codec.
+	 *
+	 * @param formattedOutput whether the marshalled light messages are indented, e.g. for display purposes
+	 * @return the codec
+	 */
+	public static LightJAXBCodec buildDefault(boolean formattedOutput) {
 		JAXBContext lightRequestJAXBContext = getJAXBContext(LIGHT_REQUEST_CODEC);
 		JAXBContext lightResponseJAXBContext = getJAXBContext(LIGHT_RESPONSE_CODEC);
-		return new LightJAXBCodec(lightRequestJAXBContext, lightResponseJAXBContext);
+		return new LightJAXBCodec(lightRequestJAXBContext, lightResponseJAXBContext, formattedOutput);
 	}
 
 	private static JAXBContext getJAXBContext(Class[] contextClasses) {
@@ -79,10 +117,17 @@ public class LightJAXBCodec {
 			return null;
 		}
 		StringWriter writer = new StringWriter();
+		final Queue<Marshaller> marshallers = getMarshallers(input.getClass());
+		Marshaller marshaller = marshallers.poll();
 		try {
-			createMarshaller(input.getClass()).marshal(input, writer);
+			if (null == marshaller) {
+				marshaller = createMarshaller(input.getClass());
+			}
+			marshaller.marshal(input, writer);
 		} catch (JAXBException e) {
 			throw new SpecificCommunicationException(e);
+		} finally {
+			release(marshallers, marshaller);
 		}
 		return writer.toString();
 	}
@@ -108,7 +153,7 @@ public class LightJAXBCodec {
 		try {
 			SAXSource secureSaxSource = SecurityUtils.createSecureSaxSource(input);
 
-			LightRequest rawRequest = (LightRequest) createUnmarshaller(LightRequest.class).unmarshal(secureSaxSource);
+			LightRequest rawRequest = (LightRequest) unmarshal(LightRequest.class, secureSaxSource);
 			T lightRequest = (T) messagesConverter.convert(rawRequest, registry);
 
 			return lightRequest;
@@ -119,6 +164,33 @@ public class LightJAXBCodec {
 		}
 	}
 
+	/**
+	 * Binds a light request which has already been parsed by a secure document builder, so that the validation of the
+	 * light request and its binding share a single parse.
+	 *
+	 * @param input the parsed light request
+	 * @param registry the attribute definitions used to convert the attributes
+	 * @return the light request
+	 * @throws SpecificCommunicationException if the document cannot be bound to a light request
+	 */
+	public <T extends ILightRequest> T unmarshallParsedRequest(Document input, Collection<AttributeDefinition<?>> registry)
+			throws SpecificCommunicationException {
+		if (input == null) {
+			return null;
+		}
+		if (registry == null) {
+			throw new SpecificCommunicationException("missing registry");
+		}
+		try {
+			LightRequest rawRequest = (LightRequest) unmarshal(LightRequest.class, input);
+			T lightRequest = (T) messagesConverter.convert(rawRequest, registry);
+
+			return lightRequest;
+		} catch (JAXBException | ClassCastException e) {
+			throw new SpecificCommunicationException(e);
+		}
+	}
+
 	public <T extends ILightResponse> T unmarshallResponse(String input,
 			Collection<AttributeDefinition<?>> registry) throws SpecificCommunicationException {
 		if (input == null) {
@@ -130,7 +202,7 @@ public class LightJAXBCodec {
 		try {
 			SAXSource secureSaxSource = SecurityUtils.createSecureSaxSource(input);
 
-			LightResponse rawResponse = (LightResponse) createUnmarshaller(LightResponse.class).unmarshal(secureSaxSource);
+			LightResponse rawResponse = (LightResponse) unmarshal(LightResponse.class, secureSaxSource);
 			T lightResponse = (T) messagesConverter.convert(rawResponse, registry);
 
 			return lightResponse;
@@ -139,6 +211,46 @@ public class LightJAXBCodec {
 		}
 	}
 
+	private Queue<Marshaller> getMarshallers(Class srcType) {
+		if (LightRequest.class.isAssignableFrom(srcType)) {
+			return lightRequestMarshallers;
+		}
+		return lightResponseMarshallers;
+	}
+
+	private Queue<Unmarshaller> getUnmarshallers(Class targetType) {
+		if (LightRequest.class.equals(targetType)) {
+			return lightRequestUnmarshallers;
+		}
+		return lightResponseUnmarshallers;
+	}
+
+	private Object unmarshal(Class targetType, Source source) throws JAXBException {
+		final Queue<Unmarshaller> unmarshallers = getUnmarshallers(targetType);
+		Unmarshaller unmarshaller = unmarshallers.poll();
+		try {
+			if (null == unmarshaller) {
+				unmarshaller = createUnmarshaller(targetType);
+			}
+			return unmarshaller.unmarshal(source);
+		} finally {
+			release(unmarshallers, unmarshaller);
+		}
+	}
+
+	private Object unmarshal(Class targetType, Node node) throws JAXBException {
+		return unmarshal(targetType, new DOMSource(node));
+	}
+
+	/**
+	 * Gives back a marshaller or an unmarshaller for reuse; it is dropped when the pool is already full.
+	 */
+	private static <C> void release(Queue<C> pool, C coder) {
+		if (null != coder) {
+			pool.offer(coder);
+		}
+	}
+
 	private Marshaller createMarshaller(Class srcType) throws JAXBException {
 		Marshaller marshaller;
 		if (LightRequest.class.isAssignableFrom(srcType)) {
@@ -147,7 +259,7 @@ public class LightJAXBCodec {
 			marshaller = lightResponseJAXBCtx.createMarshaller();
 		}
 		marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_ENCODING, "UTF-8"); // NOI18N
-		marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+		marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
 		return marshaller;
 	}
 
@@ -18,14 +18,17 @@
 
 package eu.eidas.specificcommunication.protocol.impl;
 
+import eu.eidas.auth.commons.EidasStringUtil;
 import eu.eidas.auth.commons.attribute.AttributeDefinition;
 import eu.eidas.auth.commons.light.ILightRequest;
+import eu.eidas.auth.commons.xml.DocumentBuilderFactoryUtil;
 import eu.eidas.specificcommunication.CommunicationCache;
 import eu.eidas.specificcommunication.SpecificCommunicationApplicationContextProvider;
 import eu.eidas.specificcommunication.SpecificCommunicationDefinitionBeanNames;
 import eu.eidas.specificcommunication.exception.SpecificCommunicationException;
 import eu.eidas.specificcommunication.protocol.validation.IncomingLightRequestValidator;
 import eu.eidas.specificcommunication.protocol.validation.IncomingLightRequestValidatorLoAComponent;
+import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -44,28 +47,37 @@ public class RequestSpecificCommunicationServiceImpl extends SpecificCommunicati
 
     @Override
     protected ILightRequest codecUnmarshall(String lightMessage, Collection<AttributeDefinition<?>> registry) throws SpecificCommunicationException {
-        validateIncomingString(lightMessage);
-        return codec.unmarshallRequest(lightMessage, registry);
+        final Document lightRequestDocument = validateIncomingLightRequest(lightMessage);
+        return codec.unmarshallParsedRequest(lightRequestDocument, registry);
     }
 
     protected void validateIncomingString(String lightRequest) throws SpecificCommunicationException {
         validateIncomingLightRequest(lightRequest);
-        IncomingLightRequestValidatorLoAComponent.validate(lightRequest);
     }
 
-    private void validateIncomingLightRequestId(String lightRequest) {
-        try {
-            incomingLightRequestValidator.validateLightRequestIdElement(lightRequest);
-        } catch (ParserConfigurationException | SAXException | SpecificCommunicationException | IOException e) {
-            throw new IllegalArgumentException(e);
+    /**
+     * Validates the light request and returns it parsed, so that the validators and the binding share a single parse.
+     *
+     * @param lightRequest the light request string
+     * @return the parsed light request
+     * @throws SpecificCommunicationException if the light request is invalid
+     */
+    private Document validateIncomingLightRequest(String lightRequest) throws SpecificCommunicationException {
+        if (incomingLightRequestValidator.isInvalid(lightRequest)) {
+            throw new SpecificCommunicationException("Incoming light request is invalid.");
         }
+        final Document lightRequestDocument = parseIncomingLightRequest(lightRequest);
+        incomingLightRequestValidator.validateLightRequestIdElement(lightRequestDocument);
+        IncomingLightRequestValidatorLoAComponent.validate(lightRequestDocument);
+        return lightRequestDocument;
     }
 
-    private void validateIncomingLightRequest(String lightRequest) throws SpecificCommunicationException {
-        if (incomingLightRequestValidator.isInvalid(lightRequest)) {
-            throw new SpecificCommunicationException("Incoming light request is invalid.");
+    private Document parseIncomingLightRequest(String lightRequest) {
+        try {
+            return DocumentBuilderFactoryUtil.parse(EidasStringUtil.getBytes(lightRequest));
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new IllegalArgumentException(e);
         }
-        validateIncomingLightRequestId(lightRequest);
     }
 
     private IncomingLightRequestValidator incomingLightRequestValidator =
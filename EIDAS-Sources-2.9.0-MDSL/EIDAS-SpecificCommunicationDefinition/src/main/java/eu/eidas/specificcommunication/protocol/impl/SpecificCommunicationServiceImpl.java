@@ -91,7 +91,6 @@ abstract public class SpecificCommunicationServiceImpl <T> {
         );
         final CommunicationCache communicationCache = getCommunicationCache();
         final String lightMessage = communicationCache.getAndRemove(binaryLightTokenId);
-        validateIncomingString(lightMessage);
         return codecUnmarshall(lightMessage, registry);
     }
 
@@ -104,7 +103,7 @@ abstract public class SpecificCommunicationServiceImpl <T> {
      */
     public T get(final String tokenBase64, final Collection<AttributeDefinition<?>> registry)
             throws SpecificCommunicationException {
-        return codecUnmarshall(getString(tokenBase64), registry);
+        return codecUnmarshall(getCommunicationCache().get(getBinaryLightTokenId(tokenBase64)), registry);
     }
 
     /**
@@ -115,14 +114,17 @@ abstract public class SpecificCommunicationServiceImpl <T> {
      */
     public String getString(final String tokenBase64)
             throws SpecificCommunicationException {
-        final String binaryLightTokenId = BinaryLightTokenHelper.getBinaryLightTokenId(
+        final String lightMessage = getCommunicationCache().get(getBinaryLightTokenId(tokenBase64));
+        validateIncomingString(lightMessage);
+        return lightMessage;
+    }
+
+    private String getBinaryLightTokenId(final String tokenBase64) throws SpecificCommunicationException {
+        return BinaryLightTokenHelper.getBinaryLightTokenId(
                 tokenBase64,
                 lightTokenSecret,
                 lightTokenAlgorithm
         );
-        final String lightMessage = getCommunicationCache().get(binaryLightTokenId);
-        validateIncomingString(lightMessage);
-        return lightMessage;
     }
 
     private CommunicationCache getCommunicationCache() {
@@ -131,6 +133,13 @@ abstract public class SpecificCommunicationServiceImpl <T> {
 
     abstract String codecMarshall(T iLightMessage) throws SpecificCommunicationException;
 
+    /**
+     * Validates and unmarshalls a light message read from the cache.
+     * @param lightMessage the light message, possibly null
+     * @param registry Collection of attribute definitions
+     * @return T Specific Communication Object
+     * @throws SpecificCommunicationException if the light message is invalid
+     */
     abstract T codecUnmarshall(String lightMessage, Collection<AttributeDefinition<?>> registry) throws SpecificCommunicationException;
 
     abstract void validateIncomingString(String lightMessage) throws SpecificCommunicationException;
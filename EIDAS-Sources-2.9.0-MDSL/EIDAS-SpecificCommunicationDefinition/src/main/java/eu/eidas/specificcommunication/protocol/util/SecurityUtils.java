@@ -44,6 +44,11 @@ public final class SecurityUtils {
 
     private static final String EXTERNAL_PARAMETER_ENTITIES = "http://xml.org/sax/features/external-parameter-entities";
 
+    /**
+     * The hardened factory, created once: looking up and configuring a factory costs far more than creating a parser.
+     */
+    private static volatile SAXParserFactory secureSaxParserFactory;
+
     /**
      * Creates a {@link SAXSource} with the security features turned on
      * for the input.
@@ -56,6 +61,33 @@ public final class SecurityUtils {
      *            not recognize the property EXTERNAL_GENERAL_ENTITIES.     */
     @Nonnull
     public static final SAXSource createSecureSaxSource(String input) throws ParserConfigurationException, SAXException {
+        SAXParser saxParser = newSecureSaxParser();
+        StringReader stringReader = new StringReader(input);
+        InputSource inputSource = new InputSource(stringReader);
+        XMLReader xmlReader = saxParser.getXMLReader();
+        SAXSource saxSource = new SAXSource(xmlReader, inputSource);
+
+        return saxSource;
+    }
+
+    private static SAXParser newSecureSaxParser() throws ParserConfigurationException, SAXException {
+        SAXParserFactory saxParserFactory = secureSaxParserFactory;
+        if (null == saxParserFactory) {
+            synchronized (SecurityUtils.class) {
+                saxParserFactory = secureSaxParserFactory;
+                if (null == saxParserFactory) {
+                    saxParserFactory = newSecureSaxParserFactory();
+                    secureSaxParserFactory = saxParserFactory;
+                }
+            }
+        }
+        // a factory is not guaranteed to be thread-safe, only the creation of the parser is serialized
+        synchronized (saxParserFactory) {
+            return saxParserFactory.newSAXParser();
+        }
+    }
+
+    private static SAXParserFactory newSecureSaxParserFactory() throws ParserConfigurationException, SAXException {
         SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
 
         // Ignore the external DTD completely
@@ -76,13 +108,7 @@ public final class SecurityUtils {
 
         saxParserFactory.setNamespaceAware(true);
 
-        SAXParser saxParser = saxParserFactory.newSAXParser();
-        StringReader stringReader = new StringReader(input);
-        InputSource inputSource = new InputSource(stringReader);
-        XMLReader xmlReader = saxParser.getXMLReader();
-        SAXSource saxSource = new SAXSource(xmlReader, inputSource);
-
-        return saxSource;
+        return saxParserFactory;
     }
 
     private SecurityUtils() {
@@ -84,7 +84,17 @@ public class IncomingLightRequestValidator {
 
     public void validateLightRequestIdElement(String lightRequest) throws IOException, ParserConfigurationException, SAXException, SpecificCommunicationException {
         final Document xmlDocument = DocumentBuilderFactoryUtil.parse(new ByteArrayInputStream(EidasStringUtil.getBytes(lightRequest)));
-        final Node idElement = xmlDocument.getElementsByTagName("id").item(0);
+        validateLightRequestIdElement(xmlDocument);
+    }
+
+    /**
+     * Checks that the already parsed light request has an id element.
+     *
+     * @param lightRequestDocument the parsed light request
+     * @throws IllegalArgumentException if the id element is missing
+     */
+    public void validateLightRequestIdElement(@Nonnull final Document lightRequestDocument) {
+        final Node idElement = lightRequestDocument.getElementsByTagName("id").item(0);
         if (null == idElement) {
             throw new IllegalArgumentException("Incoming light request is invalid.");
         }
@@ -50,36 +50,46 @@ public class IncomingLightRequestValidatorLoAComponent {
 
 
     public static void validate(final String lightRequest) throws SpecificCommunicationException {
+        final Document xmlDocument;
         try {
-            final Document xmlDocument = DocumentBuilderFactoryUtil.parse(new ByteArrayInputStream(EidasStringUtil.getBytes(lightRequest)));
-            final NodeList levelOfAssuranceList = xmlDocument.getElementsByTagName("levelOfAssurance"); // xml document should have namespace
-            final List<Node> loANodeList = IntStream.range(0, levelOfAssuranceList.getLength()).mapToObj(levelOfAssuranceList::item).collect(Collectors.toList());
-            assertNodesAreSecondLevelNodes(xmlDocument, loANodeList);
-            final List<Node> levelOfAssuranceTypeNotfied = getNotifiedLoaNodes(loANodeList);
-            final List<Node> levelOfAssuranceTypeNonNotfied = getNonNotifiedLoaNodes(loANodeList);
-
-            if (levelOfAssuranceList.getLength() < 1) {
-                throwValidationException(ERROR_NO_LOAS_FOUND);
-            }
+            xmlDocument = DocumentBuilderFactoryUtil.parse(new ByteArrayInputStream(EidasStringUtil.getBytes(lightRequest)));
+        } catch (IOException | SAXException | ParserConfigurationException e) {
+            throw new SpecificCommunicationException(e);
+        }
+        validate(xmlDocument);
+    }
 
-            if (isLightRequestFieldContainsBlankValues(loANodeList)) {
-                throwValidationException(ERROR_VALUE_BLANK);
-            }
+    /**
+     * Validates the levels of assurance of an already parsed light request.
+     *
+     * @param xmlDocument the parsed light request
+     * @throws SpecificCommunicationException if the levels of assurance are invalid
+     */
+    public static void validate(final Document xmlDocument) throws SpecificCommunicationException {
+        final NodeList levelOfAssuranceList = xmlDocument.getElementsByTagName("levelOfAssurance"); // xml document should have namespace
+        final List<Node> loANodeList = IntStream.range(0, levelOfAssuranceList.getLength()).mapToObj(levelOfAssuranceList::item).collect(Collectors.toList());
+        assertNodesAreSecondLevelNodes(xmlDocument, loANodeList);
+        final List<Node> levelOfAssuranceTypeNotfied = getNotifiedLoaNodes(loANodeList);
+        final List<Node> levelOfAssuranceTypeNonNotfied = getNonNotifiedLoaNodes(loANodeList);
+
+        if (levelOfAssuranceList.getLength() < 1) {
+            throwValidationException(ERROR_NO_LOAS_FOUND);
+        }
 
-            if (isLightRequestFieldContainsNodesOfType(levelOfAssuranceTypeNotfied, LevelOfAssuranceType.NON_NOTIFIED)) {
-                throwValidationException(ERROR_WRONG_TYPE_NOTIFIED);
-            }
+        if (isLightRequestFieldContainsBlankValues(loANodeList)) {
+            throwValidationException(ERROR_VALUE_BLANK);
+        }
 
-            if (isLightRequestFieldContainsNodesOfType(levelOfAssuranceTypeNonNotfied, LevelOfAssuranceType.NOTIFIED)) {
-                throwValidationException(ERROR_WRONG_TYPE_NON_NOTIFIED);
-            }
+        if (isLightRequestFieldContainsNodesOfType(levelOfAssuranceTypeNotfied, LevelOfAssuranceType.NON_NOTIFIED)) {
+            throwValidationException(ERROR_WRONG_TYPE_NOTIFIED);
+        }
 
-            if (levelOfAssuranceTypeNotfied.size() > 1) {
-                throwValidationException(ERROR_MORE_THEN_ONE_NOTIFIED_LOA);
-            }
+        if (isLightRequestFieldContainsNodesOfType(levelOfAssuranceTypeNonNotfied, LevelOfAssuranceType.NOTIFIED)) {
+            throwValidationException(ERROR_WRONG_TYPE_NON_NOTIFIED);
+        }
 
-        } catch (IOException | SAXException | ParserConfigurationException e) {
-            throw new SpecificCommunicationException(e);
+        if (levelOfAssuranceTypeNotfied.size() > 1) {
+            throwValidationException(ERROR_MORE_THEN_ONE_NOTIFIED_LOA);
         }
     }
 
@@ -146,6 +146,47 @@ public class BinaryLightTokenHelperTest {
                 "invalidAlgorithm");
     }
 
+    /**
+     * Test method for
+     * {@link BinaryLightTokenHelper#decodeBinaryLightTokenBase64(String, String, String)}
+     * <p>
+     * Must return the token with its id and issuer, and its Base64 encoding unchanged.
+     */
+    @Test
+    public void testDecodeBinaryLightTokenBase64() throws Exception {
+        final BinaryLightToken binaryLightToken = BinaryLightTokenHelper.decodeBinaryLightTokenBase64(
+                VALID_BINARY_LIGHT_TOKEN_REQUEST_BASE64,
+                LIGHTTOKEN_CONNECTOR_REQUEST_SECRET,
+                LIGHTTOKEN_CONNECTOR_REQUEST_ALGORITHM);
+
+        Assert.assertEquals("852a64c0-8ac1-445f-b0e1-992ada493033", binaryLightToken.getToken().getId());
+        Assert.assertEquals(LIGHTTOKEN_CONNECTOR_REQUEST_ISSUER_NAME, binaryLightToken.getToken().getIssuer());
+        Assert.assertEquals(VALID_BINARY_LIGHT_TOKEN_REQUEST_BASE64, binaryLightToken.getTokenBase64());
+    }
+
+    /**
+     * Test method for
+     * {@link BinaryLightTokenHelper#decodeBinaryLightTokenBase64(String, String, String)}
+     * when the token was already decoded with another secret
+     * <p>
+     * Must fail.
+     */
+    @Test
+    public void testDecodeBinaryLightTokenBase64TwiceWrongSecret() throws Exception {
+        BinaryLightTokenHelper.decodeBinaryLightTokenBase64(
+                VALID_BINARY_LIGHT_TOKEN_REQUEST_BASE64,
+                LIGHTTOKEN_CONNECTOR_REQUEST_SECRET,
+                LIGHTTOKEN_CONNECTOR_REQUEST_ALGORITHM);
+
+        thrown.expect(SecurityEIDASException.class);
+        thrown.expectMessage("LightToken digest failure");
+
+        BinaryLightTokenHelper.decodeBinaryLightTokenBase64(
+                VALID_BINARY_LIGHT_TOKEN_REQUEST_BASE64,
+                LIGHTTOKEN_CONNECTOR_RESPONSE_SECRET,
+                LIGHTTOKEN_CONNECTOR_REQUEST_ALGORITHM);
+    }
+
     /**
      * Test method for
      * {@link BinaryLightTokenHelper#getBinaryToken(HttpServletRequest, String)}
@@ -29,6 +29,7 @@ import eu.eidas.auth.commons.protocol.eidas.impl.GenderAttributeValue;
 import eu.eidas.auth.commons.protocol.eidas.impl.PostalAddress;
 import eu.eidas.auth.commons.protocol.eidas.impl.PostalAddressAttributeValue;
 import eu.eidas.auth.commons.protocol.eidas.spec.EidasSpec;
+import eu.eidas.auth.commons.xml.DocumentBuilderFactoryUtil;
 import eu.eidas.specificcommunication.exception.SpecificCommunicationException;
 import eu.eidas.specificcommunication.protocol.util.SecurityUtilsTest;
 import org.junit.Assert;
@@ -36,12 +37,15 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.w3c.dom.Document;
 
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class LightJAXBCodecTest {
@@ -188,6 +192,76 @@ public class LightJAXBCodecTest {
 		assertEquals(lightRequest.getRequestedAttributes().size(), result.getRequestedAttributes().size());
 	}
 
+	/**
+	 * Test method for
+	 * {@link LightJAXBCodec#marshall(eu.eidas.auth.commons.light.ILightRequest)}
+	 * with the default codec, marshalling several times with the reused marshaller
+	 * <p>
+	 * Must produce the same unindented output each time.
+	 */
+	@Test
+	public void testMarshallRequestNotFormattedByDefault() throws Exception {
+		LightRequest lightRequest = new LightRequest.Builder().id(ID).issuer(ISSUER)
+				.citizenCountryCode(CITIZEN_COUNTRY_CODE).levelOfAssurance(LEVEL_OF_ASSURANCE)
+				.requestedAttributes(ATTRIBUTES_WITHOUT_VALUES).nameIdFormat(UNSPECIFIED).spType(PUBLIC)
+				.relayState(RELAYSTATE).providerName(PROVIDERNAME)
+				.build();
+
+		String str = codecUnderTest.marshall(lightRequest);
+
+		assertFalse(str.contains("\n"));
+		assertEquals(str, codecUnderTest.marshall(lightRequest));
+		assertEquals(ID, codecUnderTest.unmarshallRequest(str, REGISTRY).getId());
+		assertEquals(ID, codecUnderTest.unmarshallRequest(str, REGISTRY).getId());
+	}
+
+	/**
+	 * Test method for
+	 * {@link LightJAXBCodec#buildDefault(boolean)}
+	 * when formatted output is requested
+	 * <p>
+	 * Must produce an indented output.
+	 */
+	@Test
+	public void testMarshallRequestFormatted() throws Exception {
+		LightRequest lightRequest = new LightRequest.Builder().id(ID).issuer(ISSUER)
+				.citizenCountryCode(CITIZEN_COUNTRY_CODE).levelOfAssurance(LEVEL_OF_ASSURANCE)
+				.requestedAttributes(ATTRIBUTES_WITHOUT_VALUES).nameIdFormat(UNSPECIFIED).spType(PUBLIC)
+				.relayState(RELAYSTATE).providerName(PROVIDERNAME)
+				.build();
+
+		String str = LightJAXBCodec.buildDefault(true).marshall(lightRequest);
+
+		assertTrue(str.contains("\n"));
+		assertEquals(ID, codecUnderTest.unmarshallRequest(str, REGISTRY).getId());
+	}
+
+	/**
+	 * Test method for
+	 * {@link LightJAXBCodec#unmarshallParsedRequest(Document, Collection)}
+	 * when the light request has already been parsed
+	 * <p>
+	 * Must succeed.
+	 */
+	@Test
+	public void testMarshallUnmarshallParsedRequest() throws Exception {
+		LightRequest lightRequest = new LightRequest.Builder().id(ID).issuer(ISSUER)
+				.citizenCountryCode(CITIZEN_COUNTRY_CODE).levelOfAssurance(LEVEL_OF_ASSURANCE)
+				.requestedAttributes(ATTRIBUTES_WITHOUT_VALUES).nameIdFormat(UNSPECIFIED).spType(PUBLIC)
+				.relayState(RELAYSTATE).providerName(PROVIDERNAME)
+				.build();
+
+		String str = codecUnderTest.marshall(lightRequest);
+		LightRequest result = codecUnderTest.unmarshallParsedRequest(DocumentBuilderFactoryUtil.parse(str), REGISTRY);
+
+		assertEquals(lightRequest.getId(), result.getId());
+		assertEquals(lightRequest.getCitizenCountryCode(), result.getCitizenCountryCode());
+		assertEquals(lightRequest.getIssuer(), result.getIssuer());
+		assertEquals(lightRequest.getLevelOfAssurance(), result.getLevelOfAssurance());
+		assertEquals(lightRequest.getRelayState(), result.getRelayState());
+		assertEquals(lightRequest.getRequestedAttributes().size(), result.getRequestedAttributes().size());
+	}
+
 	/**
 	 * Test method for
 	 * {@link LightJAXBCodec#unmarshallRequest(String, Collection)}